@@ -0,0 +1,72 @@
+package com.example.benchmark;
+
+import com.example.security.Hs256TokenVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token work as done by {@code JwtTokenFilter}: validate, then read the subject. The jjwt variant
+ * mirrors what {@code JwtTokenProvider} did before the fast path (two full parses). Run with {@code -prof gc}
+ * to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtVerificationBenchmark {
+
+    private String secretKey;
+    private String token;
+    private Hs256TokenVerifier verifier;
+
+    @Setup
+    public void setUp() {
+        secretKey = Base64.getEncoder().encodeToString("proselyte".getBytes());
+        Claims claims = Jwts.claims().setSubject("john.doe@example.com");
+        claims.put("role", "$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW");
+        Date now = new Date();
+        token = Jwts.builder()
+                .setClaims(claims)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + TimeUnit.DAYS.toMillis(7)))
+                .signWith(SignatureAlgorithm.HS256, secretKey)
+                .compact();
+        verifier = new Hs256TokenVerifier(Base64.getDecoder().decode(secretKey));
+    }
+
+    @Benchmark
+    public String jjwt() {
+        Claims body = Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody();
+        if (body.getExpiration().before(new Date())) {
+            throw new IllegalStateException("expired");
+        }
+        return Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String fastPath() {
+        if (verifier.verify(token) != Hs256TokenVerifier.Result.ACCEPT) {
+            throw new IllegalStateException("not accepted");
+        }
+        return verifier.subject(token);
+    }
+}
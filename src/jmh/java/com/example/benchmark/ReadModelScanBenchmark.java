@@ -0,0 +1,81 @@
+package com.example.benchmark;
+
+import com.example.model.User;
+import com.example.readmodel.OffHeapUserStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Birth date range scan over the off-heap read model compared with filtering the same users held as heap objects.
+ * Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:MaxDirectMemorySize=8g")
+public class ReadModelScanBenchmark {
+
+    private static final LocalDate EPOCH = LocalDate.of(1940, 1, 1);
+
+    @Param({"1000000"})
+    private int users;
+
+    private OffHeapUserStore store;
+    private List<User> heap;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        store = new OffHeapUserStore(users);
+        heap = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setPassword("$2a$12$abcdefghijklmnopqrstuv");
+            user.setBirthDate(EPOCH.plusDays(random.nextInt(60 * 365)));
+            store.upsert(user);
+            heap.add(user);
+        }
+        // Roughly 0.1% of the users.
+        from = EPOCH.plusDays(30 * 365);
+        to = from.plusDays(21);
+    }
+
+    @Benchmark
+    public List<User> offHeapScan() {
+        return store.findByBirthDateBetween(from, to);
+    }
+
+    @Benchmark
+    public List<User> heapScan() {
+        List<User> result = new ArrayList<>();
+        for (User user : heap) {
+            LocalDate birthDate = user.getBirthDate();
+            if (!birthDate.isBefore(from) && !birthDate.isAfter(to)) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+}
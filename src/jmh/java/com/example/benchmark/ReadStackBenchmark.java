@@ -0,0 +1,75 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the servlet and reactive read APIs with many concurrent callers. Needs a running application with
+ * {@code reactive.enabled=true}; pass a valid token with {@code -Dbenchmark.token} and an existing user id with
+ * {@code -Dbenchmark.userId}. Base URLs default to ports 8080 and 8081 on localhost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Threads(512)
+@Fork(1)
+public class ReadStackBenchmark {
+
+    @Param({"SERVLET", "REACTIVE"})
+    private String stack;
+
+    private HttpClient client;
+    private HttpRequest byId;
+    private HttpRequest search;
+
+    @Setup
+    public void setUp() {
+        String baseUrl = "SERVLET".equals(stack)
+                ? System.getProperty("benchmark.servletUrl", "http://localhost:8080")
+                : System.getProperty("benchmark.reactiveUrl", "http://localhost:8081");
+        String token = System.getProperty("benchmark.token");
+        String userId = System.getProperty("benchmark.userId");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        byId = HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/" + userId))
+                .header("Authorization", token)
+                .GET()
+                .build();
+        search = HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/search?from=1980-01-01&to=1990-01-01"))
+                .header("Authorization", token)
+                .GET()
+                .build();
+    }
+
+    @Benchmark
+    public int getUserById() throws IOException, InterruptedException {
+        return client.send(byId, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int searchByBirthDate() throws IOException, InterruptedException {
+        return client.send(search, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
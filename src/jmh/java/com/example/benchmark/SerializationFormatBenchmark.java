@@ -0,0 +1,97 @@
+package com.example.benchmark;
+
+import com.example.model.Role;
+import com.example.model.User;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode throughput of a list of users in each negotiable format. The encoded payload size is reported
+ * next to the scores as the {@code bytes} secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationFormatBenchmark {
+
+    private static final TypeReference<List<User>> USER_LIST = new TypeReference<>() {
+    };
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    private String format;
+
+    @Param({"1", "1000"})
+    private int users;
+
+    private ObjectMapper mapper;
+    private List<User> payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        switch (format) {
+            case "CBOR":
+                mapper = Jackson2ObjectMapperBuilder.cbor().build();
+                break;
+            case "SMILE":
+                mapper = Jackson2ObjectMapperBuilder.smile().build();
+                break;
+            default:
+                mapper = Jackson2ObjectMapperBuilder.json().build();
+        }
+        payload = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW");
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setBirthDate(LocalDate.of(1970, 1, 1).plusDays(i));
+            user.setAddress(i + " Main Street, Springfield");
+            user.setPhoneNumber("+1555" + (1000000 + i));
+            user.setRole(Role.values()[i % Role.values().length]);
+            payload.add(user);
+        }
+        encoded = mapper.writeValueAsBytes(payload);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long bytes;
+    }
+
+    @Benchmark
+    public byte[] encode(PayloadSize size) throws Exception {
+        byte[] result = mapper.writeValueAsBytes(payload);
+        size.bytes = result.length;
+        return result;
+    }
+
+    @Benchmark
+    public List<User> decode(PayloadSize size) throws Exception {
+        size.bytes = encoded.length;
+        return mapper.readValue(encoded, USER_LIST);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.benchmark;
+
+import com.example.util.TimeOrderedUuidGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts {@code rows} users keyed by random (v4) or time-ordered (v7-style) UUIDs into a table shaped like
+ * {@code users}. Runs against a file-backed H2 database by default; pass {@code -Dbenchmark.jdbc.url},
+ * {@code -Dbenchmark.jdbc.user} and {@code -Dbenchmark.jdbc.password} to point it at PostgreSQL instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"RANDOM", "TIME_ORDERED"})
+    private String keyType;
+
+    @Param({"10000000"})
+    private int rows;
+
+    private Path directory;
+    private Connection connection;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        String url = System.getProperty("benchmark.jdbc.url");
+        if (url == null) {
+            directory = Files.createTempDirectory("uuid-insert-benchmark");
+            url = "jdbc:h2:" + directory.resolve("users") + ";CACHE_SIZE=65536";
+        }
+        connection = DriverManager.getConnection(url,
+                System.getProperty("benchmark.jdbc.user", "sa"), System.getProperty("benchmark.jdbc.password", ""));
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists uuid_insert_benchmark");
+            statement.execute("create table uuid_insert_benchmark (id uuid not null primary key, "
+                    + "email varchar(255) not null, first_name varchar(255) not null, birth_date date not null)");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table uuid_insert_benchmark");
+        }
+        connection.commit();
+        connection.close();
+        if (directory != null) {
+            try (var files = Files.walk(directory)) {
+                files.sorted((left, right) -> right.compareTo(left)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public void insert() throws SQLException {
+        boolean timeOrdered = "TIME_ORDERED".equals(keyType);
+        java.sql.Date birthDate = java.sql.Date.valueOf("1990-01-01");
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into uuid_insert_benchmark (id, email, first_name, birth_date) values (?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                UUID id = timeOrdered ? TimeOrderedUuidGenerator.next() : UUID.randomUUID();
+                statement.setObject(1, id);
+                statement.setString(2, "user" + i + "@example.com");
+                statement.setString(3, "User");
+                statement.setDate(4, birthDate);
+                statement.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.audit;
+
+public enum AuditAction {
+    CREATE(1),
+    UPDATE(2),
+    DELETE(3),
+    LOGIN_SUCCEEDED(4),
+    LOGIN_FAILED(5);
+
+    private final byte code;
+
+    AuditAction(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static AuditAction fromCode(byte code) {
+        for (AuditAction action : values()) {
+            if (action.code == code) {
+                return action;
+            }
+        }
+        throw new IllegalArgumentException("Unknown audit action code " + code);
+    }
+}
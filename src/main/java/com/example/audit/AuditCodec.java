@@ -0,0 +1,114 @@
+package com.example.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of the audit log. A segment starts with a magic number and a format version, followed by records:
+ * <pre>
+ * int length | int crc32 | byte action | long epochMillis | byte hasUserId | [long msb | long lsb]
+ *            | short actorLength | actor | short subjectLength | subject
+ * </pre>
+ * The length covers everything after the crc; a length of zero marks the end of the written part of a segment.
+ * Strings are UTF-8 with a length of -1 standing for null.
+ */
+final class AuditCodec {
+
+    static final int MAGIC = 0x41554431;
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+
+    private AuditCodec() {
+    }
+
+    static byte[] encode(AuditRecord record) {
+        byte[] actor = bytes(record.getActor());
+        byte[] subject = bytes(record.getSubject());
+        int payloadLength = 1 + 8 + 1 + (record.getUserId() != null ? 16 : 0)
+                + 2 + (actor != null ? actor.length : 0) + 2 + (subject != null ? subject.length : 0);
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + payloadLength);
+        buffer.position(RECORD_HEADER_SIZE);
+        buffer.put(record.getAction().getCode());
+        buffer.putLong(record.getTimestamp().toEpochMilli());
+        if (record.getUserId() != null) {
+            buffer.put((byte) 1);
+            buffer.putLong(record.getUserId().getMostSignificantBits());
+            buffer.putLong(record.getUserId().getLeastSignificantBits());
+        } else {
+            buffer.put((byte) 0);
+        }
+        putString(buffer, actor);
+        putString(buffer, subject);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), RECORD_HEADER_SIZE, payloadLength);
+        buffer.putInt(0, payloadLength);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Decodes the record at the buffer's position and advances past it, or returns null without moving when the
+     * buffer holds no further complete, intact record.
+     */
+    static AuditRecord decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < RECORD_HEADER_SIZE) {
+            return null;
+        }
+        int payloadLength = buffer.getInt(start);
+        if (payloadLength <= 0 || payloadLength > buffer.remaining() - RECORD_HEADER_SIZE) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + RECORD_HEADER_SIZE).limit(start + RECORD_HEADER_SIZE + payloadLength);
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(start + 4)) {
+            return null;
+        }
+
+        buffer.position(start + RECORD_HEADER_SIZE);
+        AuditAction action = AuditAction.fromCode(buffer.get());
+        Instant timestamp = Instant.ofEpochMilli(buffer.getLong());
+        UUID userId = buffer.get() != 0 ? new UUID(buffer.getLong(), buffer.getLong()) : null;
+        String actor = getString(buffer);
+        String subject = getString(buffer);
+        buffer.position(start + RECORD_HEADER_SIZE + payloadLength);
+        return new AuditRecord(action, timestamp, userId, actor, subject);
+    }
+
+    private static byte[] bytes(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return bytes.length > MAX_STRING_BYTES ? Arrays.copyOf(bytes, MAX_STRING_BYTES) : bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.audit;
+
+import com.example.event.UserChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AuditEventListener {
+
+    private final AuditLog auditLog;
+
+    public AuditEventListener(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        AuditAction action;
+        switch (event.getType()) {
+            case CREATED:
+                action = AuditAction.CREATE;
+                break;
+            case UPDATED:
+                action = AuditAction.UPDATE;
+                break;
+            default:
+                action = AuditAction.DELETE;
+        }
+        String subject = event.getAfter() != null ? event.getAfter().getEmail() : event.getBefore().getEmail();
+        auditLog.append(AuditRecord.of(action, event.getUserId(), currentActor(), subject));
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.audit;
+
+import com.example.metrics.MetricsSource;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Append-only audit trail. Request threads only enqueue; a single writer thread drains whatever has accumulated,
+ * appends it to the memory-mapped segment and forces it to disk once per batch (group commit). Readers only ever
+ * see records up to the last forced position.
+ */
+@Service
+@Log4j2
+public class AuditLog implements MetricsSource, DisposableBean {
+
+    @Value("${audit.enabled}")
+    private boolean enabled;
+    @Value("${audit.directory}")
+    private String directory;
+    @Value("${audit.segment-size}")
+    private int segmentSize;
+    @Value("${audit.segment-max-age}")
+    private long segmentMaxAgeMillis;
+    @Value("${audit.queue-capacity}")
+    private int queueCapacity;
+    @Value("${audit.max-batch}")
+    private int maxBatch;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private BlockingQueue<AuditRecord> queue;
+    private AuditLogReader reader;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile AuditPosition committed;
+    private AuditSegment segment;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path path = Paths.get(directory);
+        if (!path.isAbsolute()) {
+            throw new IllegalStateException("audit.directory must be an absolute path when audit is enabled, got '"
+                    + directory + "'");
+        }
+        Files.createDirectories(path);
+        reader = new AuditLogReader(path);
+        List<Long> segments = reader.segments();
+        // Always start a fresh segment so that a segment torn by a crash is never appended to.
+        long sequence = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        segment = AuditSegment.create(path, sequence, segmentSize);
+        committed = new AuditPosition(sequence, segment.getPosition());
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.start();
+    }
+
+    /**
+     * Never blocks: when the writer cannot keep up and the queue is full the record is dropped and counted.
+     */
+    public void append(AuditRecord record) {
+        if (!running) {
+            return;
+        }
+        if (queue.offer(record)) {
+            appended.increment();
+        } else {
+            dropped.increment();
+            log.warn("Audit queue is full, dropped {}", record);
+        }
+    }
+
+    public AuditTail tail(AuditPosition from, int limit) {
+        if (reader == null) {
+            return new AuditTail(List.of(), from);
+        }
+        try {
+            return reader.read(from, committed, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public AuditPosition replay(AuditPosition from, Consumer<AuditRecord> consumer) {
+        if (reader == null) {
+            return from;
+        }
+        try {
+            return reader.replay(from, committed, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public AuditPosition getCommittedPosition() {
+        return committed;
+    }
+
+    private void writeLoop() {
+        List<AuditRecord> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                    write(batch);
+                    batch.clear();
+                }
+                if (!segment.isEmpty() && System.currentTimeMillis() - segment.getCreatedAtMillis() >= segmentMaxAgeMillis) {
+                    roll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not write {} audit records", batch.size(), e);
+                dropped.add(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditRecord> batch) throws IOException {
+        for (AuditRecord record : batch) {
+            byte[] encoded = AuditCodec.encode(record);
+            if (!segment.fits(encoded)) {
+                roll();
+            }
+            segment.append(encoded);
+        }
+        segment.force();
+        committed = new AuditPosition(segment.getSequence(), segment.getPosition());
+        commits.increment();
+        written.add(batch.size());
+    }
+
+    private void roll() throws IOException {
+        AuditSegment sealed = segment;
+        segment = AuditSegment.create(Paths.get(directory), sealed.getSequence() + 1, segmentSize);
+        sealed.seal();
+        committed = new AuditPosition(segment.getSequence(), segment.getPosition());
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        segment.seal();
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "audit";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        long commitCount = commits.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("appended", appended.sum());
+        metrics.put("written", written.sum());
+        metrics.put("dropped", dropped.sum());
+        metrics.put("commits", commitCount);
+        metrics.put("averageCommitSize", commitCount == 0 ? 0.0 : (double) written.sum() / commitCount);
+        metrics.put("queued", queue == null ? 0 : queue.size());
+        AuditPosition position = committed;
+        if (position != null) {
+            metrics.put("segment", position.getSegment());
+            metrics.put("segmentOffset", position.getOffset());
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads audit segments from a directory. It can be used on a live log, where the caller passes the last committed
+ * position as the upper bound, or offline, where reading stops at the first missing or damaged record.
+ */
+public class AuditLogReader {
+
+    static final String SUFFIX = ".audit";
+
+    private final Path directory;
+
+    public AuditLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    static String fileName(long sequence) {
+        return String.format("%020d%s", sequence, SUFFIX);
+    }
+
+    public List<Long> segments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} records starting at {@code from} (the beginning of the log when null), never
+     * reading past {@code upTo} when it is given.
+     */
+    public AuditTail read(AuditPosition from, AuditPosition upTo, int limit) throws IOException {
+        AuditPosition position = from != null ? from : new AuditPosition(0, AuditCodec.SEGMENT_HEADER_SIZE);
+        List<AuditRecord> records = new ArrayList<>();
+        for (long sequence : segments()) {
+            if (sequence < position.getSegment()) {
+                continue;
+            }
+            if (upTo != null && sequence > upTo.getSegment()) {
+                break;
+            }
+            int start = sequence == position.getSegment() ? position.getOffset() : AuditCodec.SEGMENT_HEADER_SIZE;
+            try (FileChannel channel = FileChannel.open(directory.resolve(fileName(sequence)), StandardOpenOption.READ)) {
+                long end = channel.size();
+                if (upTo != null && sequence == upTo.getSegment()) {
+                    end = Math.min(end, upTo.getOffset());
+                }
+                if (end < AuditCodec.SEGMENT_HEADER_SIZE || end <= start) {
+                    position = new AuditPosition(sequence, Math.max(start, AuditCodec.SEGMENT_HEADER_SIZE));
+                    continue;
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+                if (buffer.getInt(0) != AuditCodec.MAGIC) {
+                    throw new IOException("Not an audit segment: " + fileName(sequence));
+                }
+                buffer.position(start);
+                AuditRecord record;
+                while (records.size() < limit && (record = AuditCodec.decode(buffer)) != null) {
+                    records.add(record);
+                }
+                position = new AuditPosition(sequence, buffer.position());
+            }
+            if (records.size() >= limit) {
+                break;
+            }
+        }
+        return new AuditTail(records, position);
+    }
+
+    public AuditPosition replay(AuditPosition from, AuditPosition upTo, Consumer<AuditRecord> consumer)
+            throws IOException {
+        AuditPosition position = from;
+        while (true) {
+            AuditTail tail = read(position, upTo, 1024);
+            tail.getRecords().forEach(consumer);
+            position = tail.getNext();
+            if (tail.getRecords().isEmpty()) {
+                return position;
+            }
+        }
+    }
+}
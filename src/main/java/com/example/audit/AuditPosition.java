@@ -0,0 +1,19 @@
+package com.example.audit;
+
+import lombok.Data;
+
+/**
+ * Location of a record in the audit log: the segment sequence number and the byte offset within that segment.
+ */
+@Data
+public class AuditPosition implements Comparable<AuditPosition> {
+
+    private final long segment;
+    private final int offset;
+
+    @Override
+    public int compareTo(AuditPosition other) {
+        int bySegment = Long.compare(segment, other.segment);
+        return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.audit;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@ToString
+@EqualsAndHashCode
+public class AuditRecord {
+
+    private final AuditAction action;
+    private final Instant timestamp;
+    private final UUID userId;
+    private final String actor;
+    private final String subject;
+
+    public AuditRecord(AuditAction action, Instant timestamp, UUID userId, String actor, String subject) {
+        this.action = action;
+        this.timestamp = timestamp;
+        this.userId = userId;
+        this.actor = actor;
+        this.subject = subject;
+    }
+
+    public static AuditRecord of(AuditAction action, UUID userId, String actor, String subject) {
+        return new AuditRecord(action, Instant.now(), userId, actor, subject);
+    }
+}
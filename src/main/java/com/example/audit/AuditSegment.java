@@ -0,0 +1,81 @@
+package com.example.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The segment currently being appended to. The file is preallocated to its full size and mapped once; sealing
+ * truncates it to the bytes actually written.
+ */
+final class AuditSegment {
+
+    private final long sequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long createdAtMillis;
+    private int forcedUpTo;
+
+    private AuditSegment(long sequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.createdAtMillis = System.currentTimeMillis();
+    }
+
+    static AuditSegment create(Path directory, long sequence, int size) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(AuditLogReader.fileName(sequence)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.putInt(AuditCodec.MAGIC);
+        buffer.putInt(AuditCodec.VERSION);
+        return new AuditSegment(sequence, channel, buffer);
+    }
+
+    boolean fits(byte[] record) {
+        return buffer.remaining() >= record.length;
+    }
+
+    /**
+     * Writes the record body before its length so that a reader never sees a length pointing at unwritten bytes.
+     */
+    void append(byte[] record) {
+        int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.put(record, 4, record.length - 4);
+        buffer.putInt(start, ByteBuffer.wrap(record).getInt(0));
+    }
+
+    void force() {
+        int position = buffer.position();
+        if (position > forcedUpTo) {
+            buffer.force(forcedUpTo, position - forcedUpTo);
+            forcedUpTo = position;
+        }
+    }
+
+    void seal() throws IOException {
+        force();
+        channel.truncate(buffer.position());
+        channel.close();
+    }
+
+    boolean isEmpty() {
+        return buffer.position() == AuditCodec.SEGMENT_HEADER_SIZE;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    int getPosition() {
+        return buffer.position();
+    }
+
+    long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.audit;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AuditTail {
+    private final List<AuditRecord> records;
+    private final AuditPosition next;
+}
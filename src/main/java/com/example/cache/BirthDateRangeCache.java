@@ -0,0 +1,253 @@
+package com.example.cache;
+
+import com.example.event.UserChangeEvent;
+import com.example.event.UserInvalidationEvent;
+import com.example.metrics.MetricsSource;
+import com.example.model.User;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Caches birth date search results by range, bounded by an estimate of their heap size with LRU eviction. A user
+ * change only drops the cached ranges that contain the user's old or new birth date, found through a
+ * {@link DateIntervalIndex}. Loads that overlap such a change are not stored, so a result read before the change
+ * cannot outlive it.
+ */
+@Component
+public class BirthDateRangeCache implements MetricsSource {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    private static final int USER_OVERHEAD_BYTES = 96;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final int MAX_RECENT_CHANGES = 1024;
+
+    @Value("${range-cache.enabled}")
+    private boolean enabled;
+    @Value("${range-cache.max-bytes}")
+    private long maxBytes;
+
+    private final LinkedHashMap<Range, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final DateIntervalIndex<Range> index = new DateIntervalIndex<>();
+    private final ArrayDeque<Change> recentChanges = new ArrayDeque<>();
+    private long generation;
+    private long forgottenGeneration;
+    private long bytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private long discardedLoads;
+
+    /**
+     * Returns the cached users born between the inclusive bounds, or loads and caches them.
+     */
+    public List<User> get(LocalDate from, LocalDate to, Supplier<List<User>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Range range = new Range(from, to);
+        long startGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(range);
+            if (entry != null) {
+                hits++;
+                return entry.users;
+            }
+            misses++;
+            startGeneration = generation;
+        }
+        List<User> users = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+        put(range, users, startGeneration);
+        return users;
+    }
+
+    private synchronized void put(Range range, List<User> users, long startGeneration) {
+        if (changedSince(range, startGeneration)) {
+            discardedLoads++;
+            return;
+        }
+        long weight = weigh(users);
+        if (weight > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(range, new Entry(users, weight));
+        if (previous != null) {
+            bytes -= previous.bytes;
+        } else {
+            index.add(range.from, range.to, range);
+        }
+        bytes += weight;
+        Iterator<Map.Entry<Range, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            Map.Entry<Range, Entry> evicted = eldest.next();
+            eldest.remove();
+            index.remove(evicted.getKey().from, evicted.getKey().to, evicted.getKey());
+            bytes -= evicted.getValue().bytes;
+            evictions++;
+        }
+    }
+
+    /**
+     * Runs after the other listeners, so that a load starting after the invalidation already sees the change in
+     * every source it may read from, including the read model.
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onUserChange(UserChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            generation++;
+            if (event.getBefore() != null) {
+                invalidate(event.getBefore().getBirthDate());
+            }
+            if (event.getAfter() != null) {
+                invalidate(event.getAfter().getBirthDate());
+            }
+        }
+    }
+
+    /**
+     * Changes made on other nodes; ordered after the read model has reloaded the users, as for local changes.
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onUserInvalidation(UserInvalidationEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            generation++;
+            if (event.isAll()) {
+                invalidations += entries.size();
+                entries.clear();
+                index.clear();
+                bytes = 0;
+                // Loads already running may have read the unseen changes' old state.
+                recentChanges.clear();
+                forgottenGeneration = generation;
+                return;
+            }
+            for (LocalDate birthDate : event.getBirthDates()) {
+                invalidate(birthDate);
+            }
+        }
+    }
+
+    private void invalidate(LocalDate birthDate) {
+        if (birthDate == null) {
+            return;
+        }
+        recentChanges.addLast(new Change(generation, birthDate));
+        if (recentChanges.size() > MAX_RECENT_CHANGES) {
+            forgottenGeneration = recentChanges.removeFirst().generation;
+        }
+        for (Range range : new ArrayList<>(index.containing(birthDate))) {
+            index.remove(range.from, range.to, range);
+            bytes -= entries.remove(range).bytes;
+            invalidations++;
+        }
+    }
+
+    private boolean changedSince(Range range, long startGeneration) {
+        if (generation == startGeneration) {
+            return false;
+        }
+        if (forgottenGeneration > startGeneration) {
+            return true;
+        }
+        Iterator<Change> changes = recentChanges.descendingIterator();
+        while (changes.hasNext()) {
+            Change change = changes.next();
+            if (change.generation <= startGeneration) {
+                break;
+            }
+            if (!change.birthDate.isBefore(range.from) && !change.birthDate.isAfter(range.to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long weigh(List<User> users) {
+        long weight = ENTRY_OVERHEAD_BYTES;
+        for (User user : users) {
+            weight += USER_OVERHEAD_BYTES + weigh(user.getEmail()) + weigh(user.getPassword())
+                    + weigh(user.getFirstName()) + weigh(user.getLastName()) + weigh(user.getAddress())
+                    + weigh(user.getPhoneNumber());
+        }
+        return weight;
+    }
+
+    private static long weigh(String value) {
+        return value != null ? STRING_OVERHEAD_BYTES + value.length() : 0;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "birthDateRangeCache";
+    }
+
+    @Override
+    public synchronized Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("entries", entries.size());
+        metrics.put("bytes", bytes);
+        metrics.put("maxBytes", maxBytes);
+        metrics.put("hits", hits);
+        metrics.put("misses", misses);
+        metrics.put("evictions", evictions);
+        metrics.put("invalidations", invalidations);
+        metrics.put("discardedLoads", discardedLoads);
+        metrics.put("indexSegments", index.getSegments());
+        return metrics;
+    }
+
+    @EqualsAndHashCode
+    private static class Range {
+        private final LocalDate from;
+        private final LocalDate to;
+
+        private Range(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private static class Entry {
+        private final List<User> users;
+        private final long bytes;
+
+        private Entry(List<User> users, long bytes) {
+            this.users = users;
+            this.bytes = bytes;
+        }
+    }
+
+    private static class Change {
+        private final long generation;
+        private final LocalDate birthDate;
+
+        private Change(long generation, LocalDate birthDate) {
+            this.generation = generation;
+            this.birthDate = birthDate;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.cache;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index of inclusive date intervals answering "which intervals contain this day" with a single floor lookup. The
+ * timeline is cut at every interval endpoint, and each segment keeps the set of intervals covering it. Not thread-safe.
+ */
+class DateIntervalIndex<K> {
+
+    private final TreeMap<LocalDate, Set<K>> segments = new TreeMap<>();
+
+    void add(LocalDate from, LocalDate to, K key) {
+        LocalDate end = to.plusDays(1);
+        split(from);
+        split(end);
+        for (Set<K> keys : segments.subMap(from, end).values()) {
+            keys.add(key);
+        }
+    }
+
+    void remove(LocalDate from, LocalDate to, K key) {
+        LocalDate end = to.plusDays(1);
+        for (Set<K> keys : segments.subMap(from, end).values()) {
+            keys.remove(key);
+        }
+        merge(from);
+        merge(end);
+    }
+
+    /**
+     * Returns a live view; copy it before changing the index.
+     */
+    Set<K> containing(LocalDate day) {
+        Map.Entry<LocalDate, Set<K>> segment = segments.floorEntry(day);
+        return segment != null ? segment.getValue() : Collections.emptySet();
+    }
+
+    void clear() {
+        segments.clear();
+    }
+
+    int getSegments() {
+        return segments.size();
+    }
+
+    private void split(LocalDate at) {
+        if (!segments.containsKey(at)) {
+            Map.Entry<LocalDate, Set<K>> floor = segments.floorEntry(at);
+            segments.put(at, floor != null ? new HashSet<>(floor.getValue()) : new HashSet<>());
+        }
+    }
+
+    private void merge(LocalDate at) {
+        Set<K> keys = segments.get(at);
+        if (keys == null) {
+            return;
+        }
+        Map.Entry<LocalDate, Set<K>> lower = segments.lowerEntry(at);
+        if (lower != null ? lower.getValue().equals(keys) : keys.isEmpty()) {
+            segments.remove(at);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.coalescing;
+
+import com.example.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+@Configuration
+@EnableConfigurationProperties(CoalescingProperties.class)
+@EnableAspectJAutoProxy
+public class CoalescingConfiguration {
+
+    @Bean
+    public UserLookupCoalescingAspect userLookupCoalescingAspect(CoalescingProperties properties,
+                                                                 ObjectProvider<UserRepository> userRepository) {
+        return new UserLookupCoalescingAspect(properties, userRepository);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.coalescing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "coalescing")
+public class CoalescingProperties {
+
+    private Method findById = new Method();
+
+    private Method findByEmail = new Method();
+
+    @Data
+    public static class Method {
+
+        private boolean enabled = true;
+
+        /**
+         * Longest a lookup waits, while another one is running, for more ids to share one IN query with; an idle
+         * lookup never waits. 0 disables micro-batching.
+         */
+        private long batchWindow = 0;
+
+        private int maxBatchSize = 100;
+    }
+}
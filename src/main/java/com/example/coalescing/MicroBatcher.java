@@ -0,0 +1,108 @@
+package com.example.coalescing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Collects keys requested while another load is running and resolves them with a single call to the batch loader.
+ * An idle batcher loads a key straight away; otherwise the first waiting caller holds the batch open until the
+ * running load finishes, the window expires or the batch reaches {@code maxBatchSize}, and then loads it itself.
+ * Loads always run on a caller thread, so per-request query counting and timing see them.
+ */
+public class MicroBatcher<K, V> {
+
+    private final Function<List<K>, Map<K, V>> batchLoader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedKeys = new LongAdder();
+
+    private Map<K, CompletableFuture<V>> batch;
+    private int loading;
+
+    public MicroBatcher(Function<List<K>, Map<K, V>> batchLoader, long windowMillis, int maxBatchSize) {
+        this.batchLoader = batchLoader;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public V load(K key) throws Throwable {
+        CompletableFuture<V> result;
+        Map<K, CompletableFuture<V>> leading = null;
+        synchronized (lock) {
+            if (batch == null) {
+                batch = new LinkedHashMap<>();
+                leading = batch;
+            }
+            result = batch.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.size() >= maxBatchSize) {
+                batch = null;
+                lock.notifyAll();
+            }
+        }
+        if (leading != null) {
+            lead(leading);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void lead(Map<K, CompletableFuture<V>> opened) {
+        synchronized (lock) {
+            long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+            while (loading > 0 && batch == opened && remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    // Load what has been collected so far; the followers are waiting on it.
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            if (batch == opened) {
+                batch = null;
+            }
+            loading++;
+        }
+        try {
+            flush(opened);
+        } finally {
+            synchronized (lock) {
+                loading--;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void flush(Map<K, CompletableFuture<V>> pending) {
+        batches.increment();
+        batchedKeys.add(pending.size());
+        try {
+            Map<K, V> loaded = batchLoader.apply(new ArrayList<>(pending.keySet()));
+            pending.forEach((key, future) -> future.complete(loaded.get(key)));
+        } catch (RuntimeException | Error e) {
+            pending.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getBatchedKeys() {
+        return batchedKeys.sum();
+    }
+}
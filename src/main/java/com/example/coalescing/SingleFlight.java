@@ -0,0 +1,61 @@
+package com.example.coalescing;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lets concurrent callers asking for the same key share one execution of the loader. Callers that join an
+ * execution already in flight get {@code shareCopy} applied to the result, so mutable values are never shared.
+ */
+public class SingleFlight<K, V> {
+
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws Throwable;
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> shareCopy;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+
+    public SingleFlight(UnaryOperator<V> shareCopy) {
+        this.shareCopy = shareCopy;
+    }
+
+    public V execute(K key, Loader<V> loader) throws Throwable {
+        calls.increment();
+        CompletableFuture<V> execution = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, execution);
+        if (existing != null) {
+            try {
+                V shared = existing.join();
+                return shared == null ? null : shareCopy.apply(shared);
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+        executions.increment();
+        try {
+            V result = loader.load();
+            execution.complete(result);
+            return result;
+        } catch (Throwable e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+}
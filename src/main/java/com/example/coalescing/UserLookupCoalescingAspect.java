@@ -0,0 +1,121 @@
+package com.example.coalescing;
+
+import com.example.metrics.MetricsSource;
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Coalesces concurrent {@code findById} and {@code findByEmail} lookups on {@link UserRepository}. Ordered ahead of
+ * the sharding aspect so one coalesced query is routed once. Calls made inside a transaction are left alone, since
+ * they expect an entity managed by their own persistence context.
+ */
+@Aspect
+@Order(0)
+public class UserLookupCoalescingAspect implements MetricsSource {
+
+    private final CoalescingProperties properties;
+    private final ObjectProvider<UserRepository> userRepository;
+    private final SingleFlight<UUID, User> findByIdFlight = new SingleFlight<>(UserLookupCoalescingAspect::copyOf);
+    private final SingleFlight<String, User> findByEmailFlight = new SingleFlight<>(UserLookupCoalescingAspect::copyOf);
+    private final MicroBatcher<UUID, User> findByIdBatcher;
+
+    public UserLookupCoalescingAspect(CoalescingProperties properties, ObjectProvider<UserRepository> userRepository) {
+        this.properties = properties;
+        this.userRepository = userRepository;
+        CoalescingProperties.Method findById = properties.getFindById();
+        this.findByIdBatcher = findById.getBatchWindow() > 0
+                ? new MicroBatcher<>(this::loadAllById, findById.getBatchWindow(), findById.getMaxBatchSize())
+                : null;
+    }
+
+    @Around("target(com.example.repository.UserRepository) && execution(* findById(..))")
+    public Object findById(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!properties.getFindById().isEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        UUID id = (UUID) joinPoint.getArgs()[0];
+        return Optional.ofNullable(findByIdFlight.execute(id, () -> {
+            if (findByIdBatcher != null) {
+                return findByIdBatcher.load(id);
+            }
+            return ((Optional<?>) joinPoint.proceed()).map(User.class::cast).orElse(null);
+        }));
+    }
+
+    @Around("target(com.example.repository.UserRepository) && execution(* findByEmail(..))")
+    public Object findByEmail(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!properties.getFindByEmail().isEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String email = (String) joinPoint.getArgs()[0];
+        return findByEmailFlight.execute(email, () -> (User) joinPoint.proceed());
+    }
+
+    private Map<UUID, User> loadAllById(List<UUID> ids) {
+        Map<UUID, User> users = new HashMap<>();
+        for (User user : userRepository.getObject().findAllById(ids)) {
+            users.put(user.getId(), user);
+        }
+        return users;
+    }
+
+    static User copyOf(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setPassword(user.getPassword());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setBirthDate(user.getBirthDate());
+        copy.setAddress(user.getAddress());
+        copy.setPhoneNumber(user.getPhoneNumber());
+        copy.setRole(user.getRole());
+        return copy;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "coalescing";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        Map<String, Object> findById = flightMetrics(findByIdFlight);
+        if (findByIdBatcher != null) {
+            long batches = findByIdBatcher.getBatches();
+            findById.put("batches", batches);
+            findById.put("averageBatchSize", batches == 0 ? 0.0 : (double) findByIdBatcher.getBatchedKeys() / batches);
+            findById.put("queries", batches);
+            long calls = findByIdFlight.getCalls();
+            findById.put("coalescingRatio", calls == 0 ? 0.0 : 1.0 - (double) batches / calls);
+        }
+        metrics.put("findById", findById);
+        metrics.put("findByEmail", flightMetrics(findByEmailFlight));
+        return metrics;
+    }
+
+    private static Map<String, Object> flightMetrics(SingleFlight<?, ?> flight) {
+        long calls = flight.getCalls();
+        long executions = flight.getExecutions();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("calls", calls);
+        metrics.put("executions", executions);
+        metrics.put("queries", executions);
+        metrics.put("coalescingRatio", calls == 0 ? 0.0 : 1.0 - (double) executions / calls);
+        return metrics;
+    }
+}
@@ -1,31 +1,61 @@
 package com.example.configuration;
 
+import com.example.filter.EndpointAuthorizationFilter;
+import com.example.filter.IdempotencyFilter;
+import com.example.security.AuthorizationProperties;
+import com.example.security.CalibratedPasswordEncoder;
+import com.example.security.EndpointPermissionTable;
 import com.example.security.JwtConfigurer;
+import com.example.security.UserAuthenticationProvider;
+import com.example.service.IdempotencyStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 
 
 @Configuration
 @EnableWebSecurity
-@EnableGlobalMethodSecurity(prePostEnabled = true, securedEnabled = true)
+@EnableConfigurationProperties(AuthorizationProperties.class)
 public class SpringSecurityConfig extends WebSecurityConfigurerAdapter {
 
     private final JwtConfigurer jwtConfigurer;
+    private final IdempotencyStore idempotencyStore;
+    // Resolved lazily: the provider needs the password encoder defined below.
+    private final ObjectProvider<UserAuthenticationProvider> authenticationProvider;
+    private final EndpointPermissionTable permissionTable;
 
-    public SpringSecurityConfig(JwtConfigurer jwtConfigurer) {
+    @Value("${password.hash.target-millis}")
+    private long passwordHashTargetMillis;
+    @Value("${password.hash.min-cost}")
+    private int passwordHashMinCost;
+    @Value("${password.hash.max-cost}")
+    private int passwordHashMaxCost;
+    @Value("${password.hash.cost}")
+    private int passwordHashCost;
+    @Value("${password.hash.rehash-tolerance}")
+    private int passwordRehashTolerance;
+
+    public SpringSecurityConfig(JwtConfigurer jwtConfigurer, IdempotencyStore idempotencyStore,
+                                ObjectProvider<UserAuthenticationProvider> authenticationProvider,
+                                AuthorizationProperties authorizationProperties) {
         this.jwtConfigurer = jwtConfigurer;
+        this.idempotencyStore = idempotencyStore;
+        this.authenticationProvider = authenticationProvider;
+        this.permissionTable = new EndpointPermissionTable(authorizationProperties.getRules());
     }
 
     private static final String[] AUTH_WHITELIST = {
             "/authenticate",
+            "/health/**",
             "/swagger-resources/**",
             "/swagger-ui/**",
             "/v2/api-docs",
@@ -48,7 +78,17 @@ public class SpringSecurityConfig extends WebSecurityConfigurerAdapter {
                 .anyRequest()
                 .authenticated()
                 .and()
-                .apply(jwtConfigurer);
+                .apply(jwtConfigurer)
+                .and()
+                // Ahead of the idempotency filter, so that a replayed response is never served to a role that
+                // could not have made the original request.
+                .addFilterAfter(new EndpointAuthorizationFilter(permissionTable), UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(new IdempotencyFilter(idempotencyStore), UsernamePasswordAuthenticationFilter.class);
+    }
+
+    @Override
+    protected void configure(AuthenticationManagerBuilder auth) {
+        auth.authenticationProvider(authenticationProvider.getObject());
     }
 
     @Bean
@@ -58,8 +98,9 @@ public class SpringSecurityConfig extends WebSecurityConfigurerAdapter {
     }
 
     @Bean
-    protected PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    protected CalibratedPasswordEncoder passwordEncoder() {
+        return new CalibratedPasswordEncoder(passwordHashTargetMillis, passwordHashMinCost, passwordHashMaxCost,
+                passwordHashCost, passwordRehashTolerance);
     }
 
 
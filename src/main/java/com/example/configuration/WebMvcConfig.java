@@ -0,0 +1,26 @@
+package com.example.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Declared here rather than on Application so that test slices built from Application do not need a ServletContext.
+@EnableWebMvc
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    // The CBOR and Smile converters are registered by default once their Jackson data formats are on the classpath;
+    // this only lets clients that cannot set Accept pick a format with ?format=.
+    @Override
+    public void configureContentNegotiation(ContentNegotiationConfigurer configurer) {
+        configurer.favorParameter(true)
+                .parameterName("format")
+                .mediaType("json", MediaType.APPLICATION_JSON)
+                .mediaType("cbor", MediaType.APPLICATION_CBOR)
+                .mediaType("smile", APPLICATION_SMILE);
+    }
+}
@@ -1,15 +1,22 @@
 package com.example.controller;
 
+import com.example.audit.AuditAction;
+import com.example.audit.AuditLog;
+import com.example.audit.AuditRecord;
 import com.example.dto.AuthenticationRequestDTO;
+import com.example.dto.ValidationErrorResponseDTO;
 import com.example.exception.BadRequestException;
+import com.example.exception.ValidationException;
 import com.example.model.User;
 import com.example.security.JwtTokenProvider;
 import com.example.service.UserService;
+import com.example.timing.ServerTiming;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -30,19 +37,24 @@ public class AuthenticationController {
     private final UserService service;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final AuditLog auditLog;
 
-    public AuthenticationController(UserService service, AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider) {
+    public AuthenticationController(UserService service, AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider,
+                                    AuditLog auditLog) {
         this.service = service;
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.auditLog = auditLog;
     }
 
     @PostMapping("/api/register")
-    public ResponseEntity<String> registration(@Valid @RequestBody User resource) {
+    public ResponseEntity<?> registration(@Valid @RequestBody User resource) {
         try {
             service.register(resource);
             log.debug("Registration a new user.");
             return new ResponseEntity<>("User registered successfully", HttpStatus.CREATED);
+        } catch (ValidationException e) {
+            return new ResponseEntity<>(ValidationErrorResponseDTO.from(e.getResult()), HttpStatus.BAD_REQUEST);
         } catch (BadRequestException | IllegalArgumentException e) {
             StringBuilder exceptions = new StringBuilder();
             exceptions.append(e.getMessage());
@@ -56,15 +68,22 @@ public class AuthenticationController {
     @PostMapping("/api/login")
     public ResponseEntity<?> authenticate(@RequestBody AuthenticationRequestDTO request) {
         try {
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
-            User user = service.findByEmail(request.getEmail());
+            Authentication authentication = ServerTiming.time(ServerTiming.AUTH, () -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())));
+            // UserAuthenticationProvider hands back the user it loaded, so it is not read a second time.
+            User user = (User) authentication.getPrincipal();
+            if (service.rehashPasswordIfNeeded(user, request.getPassword())) {
+                log.debug("Re-hashed the password of user {} with the current cost", user.getId());
+            }
             String token = jwtTokenProvider.createToken(request.getEmail(), user.getPassword());
             Map<Object, Object> response = new HashMap<>();
             response.put("email", request.getEmail());
             response.put("token", token);
+            auditLog.append(AuditRecord.of(AuditAction.LOGIN_SUCCEEDED, user.getId(), request.getEmail(), request.getEmail()));
             log.debug("Login user.", user);
             return ResponseEntity.ok(response);
         } catch (AuthenticationException e) {
+            auditLog.append(AuditRecord.of(AuditAction.LOGIN_FAILED, null, null, request.getEmail()));
             log.error("Invalid email/password combination");
             return new ResponseEntity<>("Invalid email/password combination", HttpStatus.FORBIDDEN);
         }
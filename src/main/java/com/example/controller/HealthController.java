@@ -0,0 +1,34 @@
+package com.example.controller;
+
+import com.example.warmup.WarmUp;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/health")
+public class HealthController {
+
+    private final WarmUp warmUp;
+
+    public HealthController(WarmUp warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    @GetMapping("/liveness")
+    public ResponseEntity<Map<String, String>> liveness() {
+        return ResponseEntity.ok(Map.of("status", "UP"));
+    }
+
+    @GetMapping("/readiness")
+    public ResponseEntity<Map<String, String>> readiness() {
+        if (warmUp.isReady()) {
+            return ResponseEntity.ok(Map.of("status", "UP"));
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("status", "WARMING_UP"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.controller;
+
+import com.example.dto.UserBulkRequestDTO;
+import com.example.dto.UserBulkResponseDTO;
+import com.example.service.UserBulkService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/users")
+public class UserBulkController {
+
+    private final UserBulkService userBulkService;
+
+    public UserBulkController(UserBulkService userBulkService) {
+        this.userBulkService = userBulkService;
+    }
+
+    /**
+     * Answers 200 when every operation was applied, 207 when best-effort mode applied only some of them and 409 when
+     * all-or-nothing mode applied none.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<UserBulkResponseDTO> applyBulk(@RequestBody UserBulkRequestDTO request) {
+        UserBulkResponseDTO response = userBulkService.apply(request);
+        HttpStatus status = HttpStatus.OK;
+        if (response.getFailed() > 0) {
+            status = response.getMode() == UserBulkRequestDTO.Mode.ALL_OR_NOTHING ? HttpStatus.CONFLICT
+                    : HttpStatus.MULTI_STATUS;
+        }
+        return ResponseEntity.status(status).body(response);
+    }
+}
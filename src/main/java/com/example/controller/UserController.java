@@ -1,5 +1,10 @@
 package com.example.controller;
 
+import com.example.dto.SimilarUserDTO;
+import com.example.dto.UserBatchRequestDTO;
+import com.example.dto.UserBatchResponseDTO;
+import com.example.dto.UserFilterDTO;
+import com.example.dto.UserPageDTO;
 import com.example.exception.ResourceNotFoundException;
 import com.example.model.User;
 import com.example.service.UserService;
@@ -38,6 +43,16 @@ public class UserController {
                 .orElseThrow(() -> new ResourceNotFoundException("User with ID " + id + " not found"));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<UserBatchResponseDTO> getUsersByIds(@RequestBody UserBatchRequestDTO request) {
+        return ResponseEntity.ok(userService.getUsersByIds(request.getIds()));
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<UserPageDTO> filterUsers(UserFilterDTO filter) {
+        return ResponseEntity.ok(userService.filterUsers(filter));
+    }
+
     @PostMapping
     public ResponseEntity<User> createUser(@RequestBody User user) {
         User createdUser = userService.createUser(user);
@@ -46,8 +61,6 @@ public class UserController {
 
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(@PathVariable UUID id, @RequestBody User resource) {
-        User entity = userService.findById(id);
-        if (entity == null) throw new ResourceNotFoundException();
         resource.setId(id);
         User result = userService.updateUser(resource);
         return new ResponseEntity(result, HttpStatus.OK);
@@ -55,6 +68,12 @@ public class UserController {
     }
 
 
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarUserDTO>> findSimilarUsers(@PathVariable UUID id,
+                                                                 @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userService.findSimilarUsers(id, limit));
+    }
+
     @DeleteMapping("/{id}")
     public HttpStatus deleteUser(@PathVariable UUID id) {
         userService.deleteUser(id);
@@ -0,0 +1,24 @@
+package com.example.controller;
+
+import com.example.dto.UserStatisticsDTO;
+import com.example.service.UserStatistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/users/statistics")
+public class UserStatisticsController {
+
+    private final UserStatistics userStatistics;
+
+    public UserStatisticsController(UserStatistics userStatistics) {
+        this.userStatistics = userStatistics;
+    }
+
+    @GetMapping
+    public ResponseEntity<UserStatisticsDTO> getStatistics() {
+        return ResponseEntity.ok(userStatistics.getStatistics());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.controller;
+
+import com.example.stream.UserChangeStream;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/users")
+public class UserStreamController {
+
+    private final UserChangeStream userChangeStream;
+
+    public UserStreamController(UserChangeStream userChangeStream) {
+        this.userChangeStream = userChangeStream;
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUserChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return userChangeStream.subscribe(lastEventId);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class SimilarUserDTO {
+    private final UUID id;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+    private final String phoneNumber;
+    private final double similarity;
+}
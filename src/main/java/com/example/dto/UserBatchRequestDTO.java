@@ -0,0 +1,11 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class UserBatchRequestDTO {
+    private List<UUID> ids;
+}
@@ -0,0 +1,13 @@
+package com.example.dto;
+
+import com.example.model.User;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class UserBatchResponseDTO {
+    private final List<User> users;
+    private final List<UUID> missing;
+}
@@ -0,0 +1,19 @@
+package com.example.dto;
+
+import com.example.model.Role;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class UserBulkOperationDTO {
+
+    public enum Type {
+        UPDATE_ROLE,
+        DELETE
+    }
+
+    private Type type;
+    private UUID id;
+    private Role role;
+}
@@ -0,0 +1,18 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserBulkRequestDTO {
+
+    public enum Mode {
+        ALL_OR_NOTHING,
+        BEST_EFFORT
+    }
+
+    private List<UserBulkOperationDTO> operations;
+    // Falls back to user.bulk.mode when not given.
+    private Mode mode;
+}
@@ -0,0 +1,13 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserBulkResponseDTO {
+    private final UserBulkRequestDTO.Mode mode;
+    private final int succeeded;
+    private final int failed;
+    private final List<UserBulkResultDTO> results;
+}
@@ -0,0 +1,23 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class UserBulkResultDTO {
+
+    public enum Status {
+        OK,
+        INVALID,
+        NOT_FOUND,
+        FAILED,
+        ROLLED_BACK,
+        SKIPPED
+    }
+
+    private final int index;
+    private final UUID id;
+    private final Status status;
+    private final String message;
+}
@@ -0,0 +1,11 @@
+package com.example.dto;
+
+import com.example.event.UserChangeEvent;
+import lombok.Data;
+
+@Data
+public class UserChangeMessageDTO {
+    private final long sequence;
+    private final UserChangeEvent.Type type;
+    private final UserSummaryDTO user;
+}
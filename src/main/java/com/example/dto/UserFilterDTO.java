@@ -0,0 +1,30 @@
+package com.example.dto;
+
+import com.example.model.Role;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+public class UserFilterDTO {
+    private Role role;
+    /**
+     * Case-insensitive prefix of the last name only; first names are not matched.
+     */
+    private String namePrefix;
+    /**
+     * Only accepted together with namePrefix or a from/to range.
+     */
+    private String emailDomain;
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate from;
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate to;
+    /**
+     * birthDate or lastName, prefixed with '-' for descending order.
+     */
+    private String sort = "birthDate";
+    private int page = 0;
+    private int size = 20;
+}
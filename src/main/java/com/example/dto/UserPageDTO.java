@@ -0,0 +1,13 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserPageDTO {
+    private final List<UserSummaryDTO> users;
+    private final int page;
+    private final int size;
+    private final boolean hasNext;
+}
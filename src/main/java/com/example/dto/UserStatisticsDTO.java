@@ -0,0 +1,14 @@
+package com.example.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+public class UserStatisticsDTO {
+    private final LocalDate asOf;
+    private final long total;
+    private final Map<String, Long> byRole;
+    private final Map<String, Long> byAgeBucket;
+}
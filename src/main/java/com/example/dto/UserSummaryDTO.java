@@ -0,0 +1,17 @@
+package com.example.dto;
+
+import com.example.model.Role;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+public class UserSummaryDTO {
+    private final UUID id;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+    private final LocalDate birthDate;
+    private final Role role;
+}
@@ -0,0 +1,27 @@
+package com.example.dto;
+
+import com.example.validator.ValidationError;
+import com.example.validator.ValidationResult;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ValidationErrorResponseDTO {
+    private final List<FieldError> errors;
+
+    public static ValidationErrorResponseDTO from(ValidationResult result) {
+        List<FieldError> errors = new ArrayList<>(result.getErrors().size());
+        for (ValidationError error : result.getErrors()) {
+            errors.add(new FieldError(error.getField(), error.name()));
+        }
+        return new ValidationErrorResponseDTO(errors);
+    }
+
+    @Data
+    public static class FieldError {
+        private final String field;
+        private final String code;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.event;
+
+import com.example.model.User;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+public class UserChangeEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final User before;
+    private final User after;
+    private final boolean deferred;
+
+    private UserChangeEvent(Type type, User before, User after, boolean deferred) {
+        this.type = type;
+        this.before = before;
+        this.after = after;
+        this.deferred = deferred;
+    }
+
+    public static UserChangeEvent created(User user) {
+        return new UserChangeEvent(Type.CREATED, null, user, false);
+    }
+
+    public static UserChangeEvent updated(User before, User after) {
+        return new UserChangeEvent(Type.UPDATED, before, after, false);
+    }
+
+    /**
+     * An update acknowledged before it is written; a {@link UsersFlushedEvent} follows once it is in the database.
+     */
+    public static UserChangeEvent deferredUpdate(User before, User after) {
+        return new UserChangeEvent(Type.UPDATED, before, after, true);
+    }
+
+    public static UserChangeEvent deleted(User user) {
+        return new UserChangeEvent(Type.DELETED, user, null, false);
+    }
+
+    public UUID getUserId() {
+        return after != null ? after.getId() : before.getId();
+    }
+}
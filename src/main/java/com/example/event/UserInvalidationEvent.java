@@ -0,0 +1,33 @@
+package com.example.event;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Users changed on another node. Local caches should drop what they hold for these ids and birth dates, or
+ * everything when {@code all} is set because some changes could not be identified.
+ */
+@Getter
+public class UserInvalidationEvent {
+
+    private final boolean all;
+    private final Set<UUID> userIds;
+    private final Set<LocalDate> birthDates;
+
+    private UserInvalidationEvent(boolean all, Set<UUID> userIds, Set<LocalDate> birthDates) {
+        this.all = all;
+        this.userIds = userIds;
+        this.birthDates = birthDates;
+    }
+
+    public static UserInvalidationEvent of(Set<UUID> userIds, Set<LocalDate> birthDates) {
+        return new UserInvalidationEvent(false, userIds, birthDates);
+    }
+
+    public static UserInvalidationEvent all() {
+        return new UserInvalidationEvent(true, Set.of(), Set.of());
+    }
+}
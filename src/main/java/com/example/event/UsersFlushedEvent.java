@@ -0,0 +1,19 @@
+package com.example.event;
+
+import lombok.Getter;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Write-behind updates of these users have reached the database.
+ */
+@Getter
+public class UsersFlushedEvent {
+
+    private final Set<UUID> userIds;
+
+    public UsersFlushedEvent(Set<UUID> userIds) {
+        this.userIds = userIds;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(value= HttpStatus.BAD_REQUEST)
 public class BadRequestException extends RuntimeException {
     public BadRequestException(String message) {
-        super(message);
+        // Thrown for expected client errors only, so the stack trace is never useful.
+        super(message, null, false, false);
     }
 }
@@ -1,5 +1,6 @@
 package com.example.exception;
 
+import com.example.dto.ValidationErrorResponseDTO;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,4 +21,11 @@ public class GlobalExceptionHandler
         return handleExceptionInternal(ex, bodyOfResponse,
                 new HttpHeaders(), HttpStatus.I_AM_A_TEAPOT, request);
     }
+
+    @ExceptionHandler(value = ValidationException.class)
+    protected ResponseEntity<Object> handleValidation(
+            ValidationException ex, WebRequest request) {
+        return handleExceptionInternal(ex, ValidationErrorResponseDTO.from(ex.getResult()),
+                new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
+    }
 }
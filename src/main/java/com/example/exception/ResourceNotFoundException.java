@@ -6,9 +6,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(value= HttpStatus.NOT_FOUND, reason="No such resource")
 public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException() {
+        this(null);
     }
 
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
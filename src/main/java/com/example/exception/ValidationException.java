@@ -0,0 +1,20 @@
+package com.example.exception;
+
+import com.example.validator.ValidationResult;
+import lombok.Getter;
+
+@Getter
+public class ValidationException extends BadRequestException {
+
+    private final transient ValidationResult result;
+
+    public ValidationException(ValidationResult result) {
+        super(null);
+        this.result = result;
+    }
+
+    @Override
+    public String getMessage() {
+        return result.toString();
+    }
+}
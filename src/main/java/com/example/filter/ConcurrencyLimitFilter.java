@@ -0,0 +1,89 @@
+package com.example.filter;
+
+import com.example.limiter.GradientLimiter;
+import com.example.metrics.MetricsSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sheds load with an immediate 503 once the adaptive limit of in-flight requests is reached. Authentication and user
+ * endpoints have separate limits, so that slow logins (BCrypt) cannot starve reads and vice versa. Requests that go
+ * asynchronous, such as streams, release their permit as soon as the initial dispatch returns.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements MetricsSource {
+
+    private static final String AUTH_PREFIX = "/auth/";
+    private static final String USERS_PATH = "/api/users";
+
+    private final GradientLimiter authLimiter;
+    private final GradientLimiter usersLimiter;
+    private final String retryAfter;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public ConcurrencyLimitFilter(GradientLimiter authLimiter, GradientLimiter usersLimiter, int retryAfterSeconds) {
+        this.authLimiter = authLimiter;
+        this.usersLimiter = usersLimiter;
+        this.retryAfter = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return limiterFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        GradientLimiter.Permit permit = limiterFor(request).tryAcquire();
+        if (permit == null) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            return;
+        }
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = !request.isAsyncStarted();
+        } finally {
+            if (completed) {
+                permit.onSuccess();
+            } else {
+                permit.onIgnore();
+            }
+        }
+    }
+
+    private GradientLimiter limiterFor(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        if (path.startsWith(AUTH_PREFIX)) {
+            return authLimiter;
+        }
+        if (path.equals(USERS_PATH) || path.startsWith(USERS_PATH + "/")) {
+            return usersLimiter;
+        }
+        return null;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "concurrencyLimit";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("auth", authLimiter.getMetrics());
+        metrics.put("users", usersLimiter.getMetrics());
+        return metrics;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.filter;
+
+import com.example.model.Role;
+import com.example.security.EndpointPermissionTable;
+import com.example.security.SecurityUser;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Rejects authenticated requests whose role lacks the permissions the {@link EndpointPermissionTable} requires.
+ * Requests without an authenticated user are left to the rest of the chain, which already turns them away from
+ * anything outside the whitelist.
+ */
+public class EndpointAuthorizationFilter extends OncePerRequestFilter {
+
+    private final EndpointPermissionTable table;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public EndpointAuthorizationFilter(EndpointPermissionTable table) {
+        this.table = table;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof SecurityUser) {
+            Role role = ((SecurityUser) authentication.getPrincipal()).getRole();
+            if (!table.isAllowed(role, request.getMethod(), urlPathHelper.getPathWithinApplication(request))) {
+                response.sendError(HttpStatus.FORBIDDEN.value());
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.filter;
+
+import com.example.timing.ServerTiming;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Emits the timings collected while handling a request as a {@code Server-Timing} header. The body is buffered so
+ * that the header can still be added after serialization has finished, which rules out event streams: their body
+ * never finishes, so once a response turns out to be streamed it is written straight through, whatever the request
+ * accepted.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ServerTiming timing = ServerTiming.begin();
+        ContentCachingResponseWrapper wrapper = new StreamingAwareResponseWrapper(response, request);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            ServerTiming.end();
+            if (!wrapper.isCommitted()) {
+                wrapper.setHeader(ServerTiming.HEADER, timing.toHeaderValue());
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Stops buffering once the handler has gone async, flagged the response as streaming the way
+     * {@code ResponseBodyEmitter} does for {@code ShallowEtagHeaderFilter}, or set an event stream content type.
+     */
+    private static class StreamingAwareResponseWrapper extends ContentCachingResponseWrapper {
+
+        private static final String STREAMING_ATTRIBUTE = ShallowEtagHeaderFilter.class.getName() + ".STREAMING";
+
+        private final HttpServletRequest request;
+
+        StreamingAwareResponseWrapper(HttpServletResponse response, HttpServletRequest request) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return isStreaming() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return isStreaming() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (isStreaming()) {
+                copyBodyToResponse(false);
+                getResponse().flushBuffer();
+            }
+        }
+
+        private boolean isStreaming() {
+            String contentType = getContentType();
+            return request.isAsyncStarted() || request.getAttribute(STREAMING_ATTRIBUTE) != null
+                    || (contentType != null && contentType.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.invalidation;
+
+import com.example.event.UserChangeEvent;
+import com.example.event.UserInvalidationEvent;
+import com.example.event.UsersFlushedEvent;
+import com.example.metrics.MetricsSource;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tells the other nodes which users changed here, so that they can drop what their in-process caches hold for them.
+ * Local {@link UserChangeEvent}s are collected for a short window and sent as one numbered message; incoming ones
+ * are republished locally as {@link UserInvalidationEvent}s. Deferred write-behind updates are held back until their
+ * {@link UsersFlushedEvent}, since other nodes would otherwise re-read the old row. A gap in a node's sequence, or
+ * a lost connection, means changes went unseen, and turns into an invalidation of everything.
+ */
+@Log4j2
+public class InvalidationBus implements InvalidationTransport.Receiver, MetricsSource, DisposableBean {
+
+    private final String node = UUID.randomUUID().toString();
+    private final InvalidationProperties properties;
+    private final InvalidationTransport transport;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final Object lock = new Object();
+    private Set<UUID> pendingIds = new LinkedHashSet<>();
+    private Set<LocalDate> pendingBirthDates = new LinkedHashSet<>();
+    // Birth dates touched by deferred updates whose rows are not written yet.
+    private final Map<UUID, Set<LocalDate>> heldUntilFlushed = new HashMap<>();
+    private long sequence;
+
+    private final Map<String, Long> lastSequences = new HashMap<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder publishFailures = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder gaps = new LongAdder();
+
+    public InvalidationBus(InvalidationProperties properties, InvalidationTransport transport,
+                           ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.transport = transport;
+        this.eventPublisher = eventPublisher;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transport.start(this);
+        // One thread for both, so that a heartbeat never overtakes the message it repeats the sequence of.
+        scheduler.scheduleWithFixedDelay(this::flush, properties.getCoalesceWindow(), properties.getCoalesceWindow(),
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, properties.getHeartbeatInterval(),
+                properties.getHeartbeatInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        synchronized (lock) {
+            Set<LocalDate> birthDates = event.isDeferred()
+                    ? heldUntilFlushed.computeIfAbsent(event.getUserId(), id -> new LinkedHashSet<>())
+                    : pendingBirthDates;
+            if (event.getBefore() != null && event.getBefore().getBirthDate() != null) {
+                birthDates.add(event.getBefore().getBirthDate());
+            }
+            if (event.getAfter() != null && event.getAfter().getBirthDate() != null) {
+                birthDates.add(event.getAfter().getBirthDate());
+            }
+            if (!event.isDeferred()) {
+                release(event.getUserId());
+            }
+        }
+    }
+
+    @EventListener
+    public void onUsersFlushed(UsersFlushedEvent event) {
+        synchronized (lock) {
+            event.getUserIds().forEach(this::release);
+        }
+    }
+
+    private void release(UUID userId) {
+        pendingIds.add(userId);
+        Set<LocalDate> held = heldUntilFlushed.remove(userId);
+        if (held != null) {
+            pendingBirthDates.addAll(held);
+        }
+    }
+
+    void flush() {
+        InvalidationMessage message;
+        synchronized (lock) {
+            if (pendingIds.isEmpty()) {
+                return;
+            }
+            boolean all = pendingIds.size() > properties.getMaxIdsPerMessage();
+            message = new InvalidationMessage(node, ++sequence, false, all, all ? Set.of() : pendingIds,
+                    all ? Set.of() : pendingBirthDates);
+            pendingIds = new LinkedHashSet<>();
+            pendingBirthDates = new LinkedHashSet<>();
+        }
+        send(message);
+    }
+
+    void heartbeat() {
+        long current;
+        synchronized (lock) {
+            current = sequence;
+        }
+        if (current > 0) {
+            send(InvalidationMessage.heartbeat(node, current));
+        }
+    }
+
+    private void send(InvalidationMessage message) {
+        try {
+            transport.publish(message);
+            if (!message.isHeartbeat()) {
+                published.increment();
+            }
+        } catch (RuntimeException e) {
+            // Other nodes see the skipped sequence number with the next message or heartbeat.
+            publishFailures.increment();
+            log.warn("Could not publish invalidation {}", message.getSequence(), e);
+        }
+    }
+
+    @Override
+    public synchronized void receive(InvalidationMessage message) {
+        if (node.equals(message.getNode())) {
+            return;
+        }
+        received.increment();
+        Long last = lastSequences.get(message.getNode());
+        if (message.isHeartbeat()) {
+            if (last != null && message.getSequence() > last) {
+                gap(message);
+            }
+            if (last == null || message.getSequence() > last) {
+                lastSequences.put(message.getNode(), message.getSequence());
+            }
+            return;
+        }
+        if (last != null && message.getSequence() <= last) {
+            duplicates.increment();
+            return;
+        }
+        lastSequences.put(message.getNode(), message.getSequence());
+        if (last != null && message.getSequence() > last + 1) {
+            gap(message);
+            return;
+        }
+        eventPublisher.publishEvent(message.isAll() ? UserInvalidationEvent.all()
+                : UserInvalidationEvent.of(message.getUserIds(), message.getBirthDates()));
+    }
+
+    private void gap(InvalidationMessage message) {
+        gaps.increment();
+        log.warn("Missed invalidations from node {} before {}; invalidating all users", message.getNode(),
+                message.getSequence());
+        eventPublisher.publishEvent(UserInvalidationEvent.all());
+    }
+
+    @Override
+    public synchronized void lost() {
+        gaps.increment();
+        lastSequences.clear();
+        eventPublisher.publishEvent(UserInvalidationEvent.all());
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "invalidation";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("node", node);
+        metrics.put("transport", properties.getTransport().name());
+        synchronized (lock) {
+            metrics.put("sequence", sequence);
+        }
+        metrics.put("published", published.sum());
+        metrics.put("publishFailures", publishFailures.sum());
+        metrics.put("received", received.sum());
+        metrics.put("duplicates", duplicates.sum());
+        metrics.put("gaps", gaps.sum());
+        synchronized (this) {
+            metrics.put("peers", lastSequences.size());
+        }
+        return metrics;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+        flush();
+    }
+}
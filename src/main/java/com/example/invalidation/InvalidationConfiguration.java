@@ -0,0 +1,40 @@
+package com.example.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+@Configuration
+@ConditionalOnProperty(name = "invalidation.enabled", havingValue = "true")
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class InvalidationConfiguration {
+
+    @Bean
+    public InvalidationTransport invalidationTransport(InvalidationProperties properties,
+                                                       DataSourceProperties dataSourceProperties) throws UnknownHostException {
+        switch (properties.getTransport()) {
+            case POSTGRES:
+                return new PostgresInvalidationTransport(dataSourceProperties.determineUrl(),
+                        dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(),
+                        properties.getPostgres().getChannel());
+            case MULTICAST:
+                InvalidationProperties.Multicast multicast = properties.getMulticast();
+                return new MulticastInvalidationTransport(InetAddress.getByName(multicast.getGroup()),
+                        multicast.getPort(), multicast.getTimeToLive(), multicast.getInterfaceName());
+            default:
+                return new LoopbackInvalidationTransport();
+        }
+    }
+
+    @Bean
+    public InvalidationBus invalidationBus(InvalidationProperties properties, InvalidationTransport transport,
+                                           ApplicationEventPublisher eventPublisher) {
+        return new InvalidationBus(properties, transport, eventPublisher);
+    }
+}
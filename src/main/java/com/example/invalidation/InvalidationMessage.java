@@ -0,0 +1,76 @@
+package com.example.invalidation;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Coalesced invalidation sent by one node. Sequence numbers are consecutive per node; a heartbeat repeats the last
+ * one so that receivers notice a lost message even when no further changes follow it.
+ */
+@Data
+public class InvalidationMessage {
+
+    private static final char SEPARATOR = ';';
+    private static final String LIST_SEPARATOR = ",";
+
+    private final String node;
+    private final long sequence;
+    private final boolean heartbeat;
+    private final boolean all;
+    private final Set<UUID> userIds;
+    private final Set<LocalDate> birthDates;
+
+    public static InvalidationMessage heartbeat(String node, long sequence) {
+        return new InvalidationMessage(node, sequence, true, false, Set.of(), Set.of());
+    }
+
+    /**
+     * Encodes as {@code node;sequence;flags;ids;dates}, which keeps a message of 100 ids under the 8000 bytes
+     * PostgreSQL allows for a NOTIFY payload.
+     */
+    public String encode() {
+        StringBuilder text = new StringBuilder(64 + userIds.size() * 37 + birthDates.size() * 11);
+        text.append(node).append(SEPARATOR).append(sequence).append(SEPARATOR)
+                .append(heartbeat ? "h" : all ? "a" : "-").append(SEPARATOR);
+        appendAll(text, userIds);
+        text.append(SEPARATOR);
+        appendAll(text, birthDates);
+        return text.toString();
+    }
+
+    public static InvalidationMessage decode(String text) {
+        String[] fields = text.split(String.valueOf(SEPARATOR), -1);
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Malformed invalidation message: " + text);
+        }
+        Set<UUID> userIds = new LinkedHashSet<>();
+        for (String id : split(fields[3])) {
+            userIds.add(UUID.fromString(id));
+        }
+        Set<LocalDate> birthDates = new LinkedHashSet<>();
+        for (String date : split(fields[4])) {
+            birthDates.add(LocalDate.parse(date));
+        }
+        return new InvalidationMessage(fields[0], Long.parseLong(fields[1]), fields[2].equals("h"), fields[2].equals("a"),
+                userIds, birthDates);
+    }
+
+    private static void appendAll(StringBuilder text, Set<?> values) {
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                text.append(LIST_SEPARATOR);
+            }
+            text.append(value);
+            first = false;
+        }
+    }
+
+    private static String[] split(String list) {
+        return list.isEmpty() ? new String[0] : list.split(LIST_SEPARATOR);
+    }
+}
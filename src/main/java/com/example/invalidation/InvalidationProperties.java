@@ -0,0 +1,48 @@
+package com.example.invalidation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "invalidation")
+public class InvalidationProperties {
+
+    public enum Transport {
+        LOOPBACK,
+        POSTGRES,
+        MULTICAST
+    }
+
+    private boolean enabled = false;
+
+    private Transport transport = Transport.POSTGRES;
+
+    /**
+     * Milliseconds over which local changes are collected into one message.
+     */
+    private long coalesceWindow = 50;
+
+    private long heartbeatInterval = 5000;
+
+    /**
+     * Beyond this many users, a message asks other nodes to drop everything instead of listing them.
+     */
+    private int maxIdsPerMessage = 100;
+
+    private Postgres postgres = new Postgres();
+
+    private Multicast multicast = new Multicast();
+
+    @Data
+    public static class Postgres {
+        private String channel = "user_invalidation";
+    }
+
+    @Data
+    public static class Multicast {
+        private String group = "239.255.42.99";
+        private int port = 4446;
+        private int timeToLive = 1;
+        private String interfaceName;
+    }
+}
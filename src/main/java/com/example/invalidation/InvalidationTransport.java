@@ -0,0 +1,24 @@
+package com.example.invalidation;
+
+/**
+ * Carries invalidation messages between nodes. Delivery may be lossy or duplicated; the bus detects both from the
+ * sequence numbers.
+ */
+public interface InvalidationTransport {
+
+    void start(Receiver receiver);
+
+    void publish(InvalidationMessage message);
+
+    void close();
+
+    interface Receiver {
+
+        void receive(InvalidationMessage message);
+
+        /**
+         * Messages may have been missed, for example while reconnecting.
+         */
+        void lost();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers every message synchronously to all receivers started on the same instance, including the sender's own.
+ * Several buses sharing one instance behave like nodes of a cluster, which is what tests use it for.
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private final List<Receiver> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void start(Receiver receiver) {
+        receivers.add(receiver);
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        String encoded = message.encode();
+        for (Receiver receiver : receivers) {
+            receiver.receive(InvalidationMessage.decode(encoded));
+        }
+    }
+
+    @Override
+    public void close() {
+        receivers.clear();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.invalidation;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sends each message as one UDP datagram to a multicast group. Datagrams can be dropped or reordered, which the
+ * bus's sequence numbers make visible.
+ */
+@Log4j2
+public class MulticastInvalidationTransport implements InvalidationTransport {
+
+    private static final int MAX_DATAGRAM_BYTES = 65507;
+
+    private final InetAddress group;
+    private final int port;
+    private final int timeToLive;
+    private final String interfaceName;
+
+    private MulticastSocket socket;
+    private volatile boolean running;
+
+    public MulticastInvalidationTransport(InetAddress group, int port, int timeToLive, String interfaceName) {
+        this.group = group;
+        this.port = port;
+        this.timeToLive = timeToLive;
+        this.interfaceName = interfaceName;
+    }
+
+    @Override
+    public void start(Receiver receiver) {
+        try {
+            socket = new MulticastSocket(port);
+            socket.setTimeToLive(timeToLive);
+            NetworkInterface networkInterface = null;
+            if (interfaceName != null && !interfaceName.isBlank()) {
+                networkInterface = NetworkInterface.getByName(interfaceName);
+                socket.setNetworkInterface(networkInterface);
+            }
+            socket.joinGroup(new InetSocketAddress(group, port), networkInterface);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not join multicast group " + group + ":" + port, e);
+        }
+        running = true;
+        Thread listener = new Thread(() -> listen(receiver), "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    private void listen(Receiver receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM_BYTES];
+        while (running) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                receiver.receive(InvalidationMessage.decode(
+                        new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8)));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring invalid invalidation datagram", e);
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Invalidation listener failed to receive", e);
+                    receiver.lost();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        byte[] data = message.encode().getBytes(StandardCharsets.UTF_8);
+        try {
+            socket.send(new DatagramPacket(data, data.length, group, port));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not send invalidation " + message.getSequence(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (socket != null) {
+            socket.close();
+        }
+    }
+}
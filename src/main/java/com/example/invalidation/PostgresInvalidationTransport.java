@@ -0,0 +1,125 @@
+package com.example.invalidation;
+
+import lombok.extern.log4j.Log4j2;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Uses PostgreSQL LISTEN/NOTIFY. Both directions get their own connection outside the pool, since a listener holds
+ * its connection for good. Notifications sent while the listener was reconnecting are lost and reported as such.
+ */
+@Log4j2
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    private static final int POLL_MILLIS = 1000;
+    private static final long RECONNECT_MILLIS = 5000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+
+    private volatile boolean running;
+    private Thread listener;
+    private Connection publisher;
+
+    public PostgresInvalidationTransport(String url, String username, String password, String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid notification channel: " + channel);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+    }
+
+    @Override
+    public void start(Receiver receiver) {
+        running = true;
+        listener = new Thread(() -> listen(receiver), "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    private void listen(Receiver receiver) {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (reconnecting) {
+                    receiver.lost();
+                }
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] received = notifications.getNotifications(POLL_MILLIS);
+                    if (received == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : received) {
+                        try {
+                            receiver.receive(InvalidationMessage.decode(notification.getParameter()));
+                        } catch (IllegalArgumentException e) {
+                            log.warn("Ignoring invalid invalidation message", e);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation listener lost its connection; reconnecting", e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(RECONNECT_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void publish(InvalidationMessage message) {
+        try {
+            if (publisher == null || publisher.isClosed()) {
+                publisher = DriverManager.getConnection(url, username, password);
+            }
+            try (PreparedStatement statement = publisher.prepareStatement("select pg_notify(?, ?)")) {
+                statement.setString(1, channel);
+                statement.setString(2, message.encode());
+                statement.execute();
+            }
+        } catch (SQLException e) {
+            closePublisher();
+            throw new IllegalStateException("Could not send invalidation " + message.getSequence(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        closePublisher();
+    }
+
+    private void closePublisher() {
+        if (publisher != null) {
+            try {
+                publisher.close();
+            } catch (SQLException e) {
+                log.debug("Could not close the invalidation publisher connection", e);
+            }
+            publisher = null;
+        }
+    }
+}
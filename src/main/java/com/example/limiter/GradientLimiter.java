@@ -0,0 +1,110 @@
+package com.example.limiter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that follows latency, after the gradient algorithm of Netflix's concurrency-limits. A slow moving
+ * average of the round trip time stands for the no-load latency. The limit shrinks as latency climbs above it, and it
+ * keeps probing upwards by a queue allowance of sqrt(limit) while latency stays flat. Samples taken while less than half
+ * the limit is in use say nothing about capacity, so they are skipped.
+ */
+public class GradientLimiter {
+
+    private static final int LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double TOLERANCE = 1.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRtt;
+    private long samples;
+
+    public GradientLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Returns a permit that must be released exactly once, or null when the limit has been reached.
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        double shortRtt = Math.max(1, rttNanos);
+        samples++;
+        longRtt = samples == 1 ? shortRtt : longRtt + (shortRtt - longRtt) / Math.min(samples, LONG_WINDOW);
+        // Once latency has dropped well below the baseline, let the baseline follow quickly instead of over a full window.
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("limit", limit);
+        metrics.put("inFlight", inFlight.get());
+        metrics.put("accepted", accepted.sum());
+        metrics.put("rejected", rejected.sum());
+        return metrics;
+    }
+
+    public class Permit {
+
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the permit and feeds the request's latency into the limit.
+         */
+        public void onSuccess() {
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - startNanos, inFlightAtStart);
+        }
+
+        /**
+         * Releases the permit without a sample, for requests whose duration says nothing about capacity.
+         */
+        public void onIgnore() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.limiter;
+
+import com.example.filter.ConcurrencyLimitFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "limiter.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(LimiterProperties.class)
+public class LimiterConfiguration {
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(LimiterProperties properties) {
+        return new ConcurrencyLimitFilter(properties.getAuth().newLimiter(), properties.getUsers().newLimiter(),
+                properties.getRetryAfter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        // First in line: shed requests before Server-Timing buffering, JWT verification or any other work.
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        return registration;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.limiter;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "limiter")
+public class LimiterProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Seconds sent in the Retry-After header of shed requests.
+     */
+    private int retryAfter = 1;
+
+    private Partition auth = new Partition(20, 4, 200);
+
+    private Partition users = new Partition(50, 8, 500);
+
+    @Data
+    public static class Partition {
+
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+
+        public Partition() {
+        }
+
+        public Partition(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        GradientLimiter newLimiter() {
+            return new GradientLimiter(initialLimit, minLimit, maxLimit);
+        }
+    }
+}
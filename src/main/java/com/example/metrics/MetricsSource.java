@@ -0,0 +1,10 @@
+package com.example.metrics;
+
+import java.util.Map;
+
+public interface MetricsSource {
+
+    String getMetricsName();
+
+    Map<String, Object> getMetrics();
+}
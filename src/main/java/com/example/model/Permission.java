@@ -1,5 +1,7 @@
 package com.example.model;
 
+import java.util.Collection;
+
 public enum Permission {
     READ("read"),
     UPDATE("update"),
@@ -15,4 +17,16 @@ public enum Permission {
     public String getPermission() {
         return permission;
     }
+
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    public static int maskOf(Collection<Permission> permissions) {
+        int mask = 0;
+        for (Permission permission : permissions) {
+            mask |= permission.getMask();
+        }
+        return mask;
+    }
 }
@@ -11,18 +11,36 @@ public enum Role {
     ADMIN(Set.of(Permission.READ , Permission.UPDATE , Permission.WRITE));
 
     private final Set<Permission> permissions;
+    private final Set<SimpleGrantedAuthority> authorities;
+    private final int permissionMask;
 
     Role(Set<Permission> permissions) {
         this.permissions = permissions;
+        this.authorities = permissions.stream()
+                .map(permission -> new SimpleGrantedAuthority(permission.getPermission()))
+                .collect(Collectors.toUnmodifiableSet());
+        this.permissionMask = Permission.maskOf(permissions);
     }
 
     public Set<Permission> getPermissions() {
         return permissions;
     }
 
+    /**
+     * Built once per role; the set is immutable and shared by every caller.
+     */
     public Set<SimpleGrantedAuthority> getAuthorities() {
-        return getPermissions().stream()
-                .map(permission -> new SimpleGrantedAuthority(permission.getPermission()))
-                .collect(Collectors.toSet());
+        return authorities;
+    }
+
+    public int getPermissionMask() {
+        return permissionMask;
+    }
+
+    /**
+     * Users without a stored role get the least privileged one.
+     */
+    public static Role orGuest(Role role) {
+        return role != null ? role : GUEST;
     }
 }
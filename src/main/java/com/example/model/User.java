@@ -1,6 +1,10 @@
 package com.example.model;
 
+import com.example.util.TimeOrderedUuidGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 
 
 import javax.persistence.*;
@@ -9,6 +13,7 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Past;
 import java.time.LocalDate;
+import java.util.Locale;
 import java.util.UUID;
 
 
@@ -18,7 +23,7 @@ import java.util.UUID;
 public class User {
 
     @Id
-    private UUID id = UUID.randomUUID();
+    private UUID id = TimeOrderedUuidGenerator.next();
 
     @Column(name = "email", nullable = false, unique = true)
     private String email;
@@ -45,4 +50,18 @@ public class User {
     @Column(name = "role")
     @Enumerated(EnumType.STRING)
     private Role role;
+
+    /**
+     * Lower-cased part of the email after the last '@', kept in its own column so that it can be indexed.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "email_domain")
+    private String emailDomain;
+
+    public void setEmail(String email) {
+        this.email = email;
+        int at = email != null ? email.lastIndexOf('@') : -1;
+        this.emailDomain = at >= 0 ? email.substring(at + 1).toLowerCase(Locale.ROOT) : null;
+    }
 }
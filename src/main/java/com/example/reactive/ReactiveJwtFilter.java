@@ -0,0 +1,61 @@
+package com.example.reactive;
+
+import com.example.exception.JwtAuthenticationException;
+import com.example.security.EndpointPermissionTable;
+import com.example.security.JwtTokenProvider;
+import com.example.security.SecurityUser;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive counterpart of the servlet JWT and endpoint authorization filters: the token must verify, its subject
+ * must still be an enabled user, and that user's role must hold the permissions the {@link EndpointPermissionTable}
+ * requires. The user is read through R2DBC so the event loop never blocks on JDBC.
+ */
+public class ReactiveJwtFilter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ReactiveUserRepository repository;
+    private final EndpointPermissionTable permissionTable;
+    private final String authorizationHeader;
+
+    public ReactiveJwtFilter(JwtTokenProvider jwtTokenProvider, ReactiveUserRepository repository,
+                             EndpointPermissionTable permissionTable, String authorizationHeader) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.repository = repository;
+        this.permissionTable = permissionTable;
+        this.authorizationHeader = authorizationHeader;
+    }
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        String token = request.headers().firstHeader(authorizationHeader);
+        String email;
+        try {
+            if (token == null || !jwtTokenProvider.validateToken(token)) {
+                return unauthorized();
+            }
+            email = jwtTokenProvider.getUsername(token);
+        } catch (JwtAuthenticationException e) {
+            return unauthorized();
+        }
+        if (email == null) {
+            return unauthorized();
+        }
+        return repository.findByEmail(email)
+                .map(user -> (SecurityUser) SecurityUser.fromUser(user))
+                .filter(user -> user.isEnabled() && user.isAccountNonLocked())
+                .flatMap(user -> permissionTable.isAllowed(user.getRole(), request.methodName(), request.path())
+                        ? next.handle(request)
+                        : ServerResponse.status(HttpStatus.FORBIDDEN).build())
+                .switchIfEmpty(Mono.defer(this::unauthorized));
+    }
+
+    private Mono<ServerResponse> unauthorized() {
+        return ServerResponse.status(HttpStatus.UNAUTHORIZED).build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.reactive;
+
+import com.example.security.AuthorizationProperties;
+import com.example.security.EndpointPermissionTable;
+import com.example.security.JwtTokenProvider;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Read-only user API served by Reactor Netty on its own port, next to the servlet stack. Reads go through R2DBC
+ * against the same {@code users} table, and requests are authenticated and authorized by the same JWT verification
+ * and endpoint permission rules as the servlet API.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveReadConfiguration {
+
+    @Value("${reactive.r2dbc.url}")
+    private String url;
+    @Value("${reactive.r2dbc.username}")
+    private String username;
+    @Value("${reactive.r2dbc.password}")
+    private String password;
+    @Value("${reactive.r2dbc.pool-size}")
+    private int poolSize;
+    @Value("${reactive.r2dbc.fetch-size}")
+    private int fetchSize;
+    @Value("${spring.jwt.header}")
+    private String authorizationHeader;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionPool() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    public ReactiveUserRepository reactiveUserRepository(ConnectionPool reactiveConnectionPool) {
+        return new ReactiveUserRepository(DatabaseClient.create(reactiveConnectionPool), fetchSize);
+    }
+
+    @Bean
+    public ReactiveReadServer reactiveReadServer(ReactiveUserRepository reactiveUserRepository,
+                                                 JwtTokenProvider jwtTokenProvider,
+                                                 AuthorizationProperties authorizationProperties,
+                                                 @Value("${reactive.port}") int port) {
+        ReactiveUserHandler handler = new ReactiveUserHandler(reactiveUserRepository);
+        RouterFunction<ServerResponse> router = RouterFunctions.route()
+                .GET("/api/users/search", handler::searchUsersByBirthDateRange)
+                .GET("/api/users/{id}", handler::getUserById)
+                .GET("/api/users", handler::getAllUsers)
+                .filter(new ReactiveJwtFilter(jwtTokenProvider, reactiveUserRepository,
+                        new EndpointPermissionTable(authorizationProperties.getRules()), authorizationHeader))
+                .build();
+        // Same Jackson setup as the servlet converters, so both stacks render users identically.
+        Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build());
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(encoder))
+                .build();
+        return new ReactiveReadServer(RouterFunctions.toHttpHandler(router, strategies), port);
+    }
+}
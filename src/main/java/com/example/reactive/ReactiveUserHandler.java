@@ -0,0 +1,64 @@
+package com.example.reactive;
+
+import com.example.model.User;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+public class ReactiveUserHandler {
+
+    private final ReactiveUserRepository repository;
+
+    public ReactiveUserHandler(ReactiveUserRepository repository) {
+        this.repository = repository;
+    }
+
+    public Mono<ServerResponse> getAllUsers(ServerRequest request) {
+        return respond(request, repository.findAll());
+    }
+
+    public Mono<ServerResponse> getUserById(ServerRequest request) {
+        UUID id;
+        try {
+            id = UUID.fromString(request.pathVariable("id"));
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return repository.findById(id)
+                .flatMap(user -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(user))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> searchUsersByBirthDateRange(ServerRequest request) {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = request.queryParam("from").map(LocalDate::parse).orElse(null);
+            to = request.queryParam("to").map(LocalDate::parse).orElse(null);
+        } catch (DateTimeParseException e) {
+            return ServerResponse.badRequest().build();
+        }
+        if (from == null || to == null) {
+            return ServerResponse.badRequest().build();
+        }
+        if (!from.isBefore(to)) {
+            return ServerResponse.status(HttpStatus.BAD_REQUEST).bodyValue("'From' should be less than 'To'");
+        }
+        return respond(request, repository.findByBirthDateBetween(from, to));
+    }
+
+    // NDJSON is written row by row as the client reads it; plain JSON has to be collected into one array first.
+    private Mono<ServerResponse> respond(ServerRequest request, Flux<User> users) {
+        if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(users, User.class);
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(users, User.class);
+    }
+}
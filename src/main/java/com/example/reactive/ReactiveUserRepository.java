@@ -0,0 +1,71 @@
+package com.example.reactive;
+
+import com.example.model.Role;
+import com.example.model.User;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public class ReactiveUserRepository {
+
+    private static final String SELECT_USERS =
+            "select id, email, password, first_name, last_name, birth_date, address, phone_number, role from users";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient, int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    public Flux<User> findAll() {
+        return databaseClient.sql(SELECT_USERS)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    public Mono<User> findById(UUID id) {
+        return databaseClient.sql(SELECT_USERS + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Mono<User> findByEmail(String email) {
+        return databaseClient.sql(SELECT_USERS + " where email = :email")
+                .bind("email", email)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Flux<User> findByBirthDateBetween(LocalDate from, LocalDate to) {
+        return databaseClient.sql(SELECT_USERS + " where birth_date between :from and :to")
+                .bind("from", from)
+                .bind("to", to)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    private static User toUser(Row row, RowMetadata metadata) {
+        User user = new User();
+        user.setId(row.get("id", UUID.class));
+        user.setEmail(row.get("email", String.class));
+        user.setPassword(row.get("password", String.class));
+        user.setFirstName(row.get("first_name", String.class));
+        user.setLastName(row.get("last_name", String.class));
+        user.setBirthDate(row.get("birth_date", LocalDate.class));
+        user.setAddress(row.get("address", String.class));
+        user.setPhoneNumber(row.get("phone_number", String.class));
+        String role = row.get("role", String.class);
+        user.setRole(role == null ? null : Role.valueOf(role));
+        return user;
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.readmodel;
+
+import com.example.model.Role;
+import com.example.model.User;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-wise copy of the users table held in direct buffers. Each user occupies one row; birth dates are epoch
+ * days, roles are bytes and strings live in a {@link StringArena}. An open-addressing hash, also off-heap, maps ids
+ * to rows. Deleted rows are only marked dead, and a re-inserted id takes its old row back. Writers take an exclusive
+ * lock, so scans always see complete rows.
+ */
+public class OffHeapUserStore {
+
+    private static final int EMAIL = 0;
+    private static final int PASSWORD = 1;
+    private static final int FIRST_NAME = 2;
+    private static final int LAST_NAME = 3;
+    private static final int ADDRESS = 4;
+    private static final int PHONE_NUMBER = 5;
+    private static final int STRING_COLUMNS = 6;
+
+    private static final int NO_BIRTH_DATE = Integer.MIN_VALUE;
+    private static final Role[] ROLES = Role.values();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int capacity;
+    private int rows;
+    private int liveRows;
+    private LongBuffer idMsb;
+    private LongBuffer idLsb;
+    private IntBuffer birthDays;
+    private ByteBuffer roles;
+    private ByteBuffer live;
+    private final LongBuffer[] strings = new LongBuffer[STRING_COLUMNS];
+    private StringArena arena = new StringArena();
+    private long garbageBytes;
+
+    // Index slots hold the id and row + 1, where 0 marks an empty slot.
+    private LongBuffer indexMsb;
+    private LongBuffer indexLsb;
+    private IntBuffer indexRow;
+    private int indexMask;
+
+    public OffHeapUserStore(int initialCapacity) {
+        capacity = Math.max(16, initialCapacity);
+        idMsb = longs(capacity);
+        idLsb = longs(capacity);
+        birthDays = ints(capacity);
+        roles = ByteBuffer.allocateDirect(capacity);
+        live = ByteBuffer.allocateDirect(capacity);
+        for (int column = 0; column < STRING_COLUMNS; column++) {
+            strings[column] = longs(capacity);
+        }
+        allocateIndex(Integer.highestOneBit(capacity - 1) << 2);
+    }
+
+    public void upsert(User user) {
+        lock.writeLock().lock();
+        try {
+            int row = find(user.getId());
+            if (row < 0) {
+                row = appendRow(user.getId());
+            } else {
+                for (int column = 0; column < STRING_COLUMNS; column++) {
+                    garbageBytes += StringArena.length(strings[column].get(row));
+                }
+            }
+            if (live.get(row) == 0) {
+                live.put(row, (byte) 1);
+                liveRows++;
+            }
+            write(row, user);
+            if (garbageBytes > Math.max(arena.getUsedBytes() / 2, 64L << 20)) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts the user unless its id is already known, including ids deleted since; used by bulk loading so that
+     * it never overwrites changes applied while it was running.
+     */
+    public boolean insertIfAbsent(User user) {
+        lock.writeLock().lock();
+        try {
+            if (find(user.getId()) >= 0) {
+                return false;
+            }
+            int row = appendRow(user.getId());
+            live.put(row, (byte) 1);
+            liveRows++;
+            write(row, user);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            int row = find(id);
+            if (row < 0) {
+                // Remember the id so that a concurrent bulk load does not resurrect it.
+                row = appendRow(id);
+                birthDays.put(row, NO_BIRTH_DATE);
+                roles.put(row, (byte) 0);
+                for (int column = 0; column < STRING_COLUMNS; column++) {
+                    strings[column].put(row, StringArena.NULL);
+                }
+                return;
+            }
+            if (live.get(row) != 0) {
+                live.put(row, (byte) 0);
+                liveRows--;
+                for (int column = 0; column < STRING_COLUMNS; column++) {
+                    garbageBytes += StringArena.length(strings[column].get(row));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public User get(UUID id) {
+        lock.readLock().lock();
+        try {
+            int row = find(id);
+            return row >= 0 && live.get(row) != 0 ? toUser(row) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<User> findAll() {
+        lock.readLock().lock();
+        try {
+            List<User> users = new ArrayList<>(liveRows);
+            for (int row = 0; row < rows; row++) {
+                if (live.get(row) != 0) {
+                    users.add(toUser(row));
+                }
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Both bounds are inclusive, as with the repository's {@code findByBirthDateBetween}.
+     */
+    public List<User> findByBirthDateBetween(LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        lock.readLock().lock();
+        try {
+            int[] matches = new int[64];
+            int count = 0;
+            IntBuffer days = birthDays;
+            ByteBuffer alive = live;
+            for (int row = 0, end = rows; row < end; row++) {
+                int day = days.get(row);
+                if (day >= fromDay && day <= toDay && alive.get(row) != 0) {
+                    if (count == matches.length) {
+                        matches = Arrays.copyOf(matches, count * 2);
+                    }
+                    matches[count++] = row;
+                }
+            }
+            List<User> users = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                users.add(toUser(matches[i]));
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getOffHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long columns = (long) capacity * (16 + 4 + 1 + 1 + 8 * STRING_COLUMNS);
+            return columns + (long) (indexMask + 1) * (16 + 4) + arena.getAllocatedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getGarbageBytes() {
+        lock.readLock().lock();
+        try {
+            return garbageBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(int row, User user) {
+        birthDays.put(row, user.getBirthDate() != null ? (int) user.getBirthDate().toEpochDay() : NO_BIRTH_DATE);
+        roles.put(row, user.getRole() != null ? (byte) (user.getRole().ordinal() + 1) : 0);
+        strings[EMAIL].put(row, arena.put(user.getEmail()));
+        strings[PASSWORD].put(row, arena.put(user.getPassword()));
+        strings[FIRST_NAME].put(row, arena.put(user.getFirstName()));
+        strings[LAST_NAME].put(row, arena.put(user.getLastName()));
+        strings[ADDRESS].put(row, arena.put(user.getAddress()));
+        strings[PHONE_NUMBER].put(row, arena.put(user.getPhoneNumber()));
+    }
+
+    private User toUser(int row) {
+        User user = new User();
+        user.setId(new UUID(idMsb.get(row), idLsb.get(row)));
+        int day = birthDays.get(row);
+        user.setBirthDate(day != NO_BIRTH_DATE ? LocalDate.ofEpochDay(day) : null);
+        byte role = roles.get(row);
+        user.setRole(role != 0 ? ROLES[role - 1] : null);
+        user.setEmail(arena.get(strings[EMAIL].get(row)));
+        user.setPassword(arena.get(strings[PASSWORD].get(row)));
+        user.setFirstName(arena.get(strings[FIRST_NAME].get(row)));
+        user.setLastName(arena.get(strings[LAST_NAME].get(row)));
+        user.setAddress(arena.get(strings[ADDRESS].get(row)));
+        user.setPhoneNumber(arena.get(strings[PHONE_NUMBER].get(row)));
+        return user;
+    }
+
+    private int appendRow(UUID id) {
+        if (rows == capacity) {
+            grow();
+        }
+        int row = rows++;
+        idMsb.put(row, id.getMostSignificantBits());
+        idLsb.put(row, id.getLeastSignificantBits());
+        live.put(row, (byte) 0);
+        indexPut(id, row);
+        return row;
+    }
+
+    private int find(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        for (int slot = hash(msb, lsb) & indexMask; ; slot = (slot + 1) & indexMask) {
+            int entry = indexRow.get(slot);
+            if (entry == 0) {
+                return -1;
+            }
+            if (indexMsb.get(slot) == msb && indexLsb.get(slot) == lsb) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private void indexPut(UUID id, int row) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int slot = hash(msb, lsb) & indexMask;
+        while (indexRow.get(slot) != 0) {
+            slot = (slot + 1) & indexMask;
+        }
+        indexMsb.put(slot, msb);
+        indexLsb.put(slot, lsb);
+        indexRow.put(slot, row + 1);
+    }
+
+    private void allocateIndex(int slots) {
+        indexMsb = longs(slots);
+        indexLsb = longs(slots);
+        indexRow = ints(slots);
+        indexMask = slots - 1;
+    }
+
+    private void grow() {
+        if (capacity > Integer.MAX_VALUE / 4) {
+            throw new IllegalStateException("Read model cannot hold more than " + capacity + " users");
+        }
+        int newCapacity = capacity * 2;
+        idMsb = copy(idMsb, longs(newCapacity), rows);
+        idLsb = copy(idLsb, longs(newCapacity), rows);
+        birthDays = copy(birthDays, ints(newCapacity), rows);
+        roles = copy(roles, ByteBuffer.allocateDirect(newCapacity), rows);
+        live = copy(live, ByteBuffer.allocateDirect(newCapacity), rows);
+        for (int column = 0; column < STRING_COLUMNS; column++) {
+            strings[column] = copy(strings[column], longs(newCapacity), rows);
+        }
+        capacity = newCapacity;
+
+        // Keep the index at most half full.
+        allocateIndex((indexMask + 1) * 2);
+        for (int row = 0; row < rows; row++) {
+            indexPut(new UUID(idMsb.get(row), idLsb.get(row)), row);
+        }
+    }
+
+    /**
+     * Rewrites the strings of live rows into a fresh arena, dropping the ones left behind by updates and deletes.
+     */
+    private void compact() {
+        StringArena compacted = new StringArena();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < STRING_COLUMNS; column++) {
+                long ref = live.get(row) != 0 ? compacted.put(arena.get(strings[column].get(row))) : StringArena.NULL;
+                strings[column].put(row, ref);
+            }
+        }
+        arena = compacted;
+        garbageBytes = 0;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static LongBuffer longs(int count) {
+        if (count > Integer.MAX_VALUE / 8) {
+            throw new IllegalStateException("Read model column of " + count + " longs exceeds a direct buffer");
+        }
+        return ByteBuffer.allocateDirect(count * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static IntBuffer ints(int count) {
+        return ByteBuffer.allocateDirect(count * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static LongBuffer copy(LongBuffer from, LongBuffer to, int count) {
+        to.put(0, from, 0, count);
+        return to;
+    }
+
+    private static IntBuffer copy(IntBuffer from, IntBuffer to, int count) {
+        to.put(0, from, 0, count);
+        return to;
+    }
+
+    private static ByteBuffer copy(ByteBuffer from, ByteBuffer to, int count) {
+        to.put(0, from, 0, count);
+        return to;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.readmodel;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only UTF-8 storage in fixed-size direct chunks. A string is addressed by a single long packing the chunk
+ * index, the offset within the chunk and the length, so the columns referencing it stay primitive.
+ */
+final class StringArena {
+
+    static final long NULL = -1L;
+
+    private static final int CHUNK_BITS = 24;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CHUNKS = 1 << 15;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+    private long usedBytes;
+
+    long put(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MASK) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes does not fit an arena chunk");
+        }
+        if (current == null || current.remaining() < bytes.length) {
+            if (chunks.size() == MAX_CHUNKS) {
+                throw new IllegalStateException("String arena is full");
+            }
+            current = ByteBuffer.allocateDirect(CHUNK_SIZE);
+            chunks.add(current);
+        }
+        int offset = current.position();
+        current.put(bytes);
+        usedBytes += bytes.length;
+        return ((long) (chunks.size() - 1) << (2 * CHUNK_BITS)) | ((long) offset << CHUNK_BITS) | bytes.length;
+    }
+
+    String get(long ref) {
+        if (ref == NULL) {
+            return null;
+        }
+        byte[] bytes = new byte[length(ref)];
+        chunks.get((int) (ref >>> (2 * CHUNK_BITS))).get((int) (ref >>> CHUNK_BITS) & MASK, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int length(long ref) {
+        return ref == NULL ? 0 : (int) ref & MASK;
+    }
+
+    long getUsedBytes() {
+        return usedBytes;
+    }
+
+    long getAllocatedBytes() {
+        return (long) chunks.size() * CHUNK_SIZE;
+    }
+}
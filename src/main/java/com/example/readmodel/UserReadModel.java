@@ -0,0 +1,175 @@
+package com.example.readmodel;
+
+import com.example.event.UserChangeEvent;
+import com.example.event.UserInvalidationEvent;
+import com.example.metrics.MetricsSource;
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Optional in-memory copy of the users table used for full listings and birth date range scans. It is loaded in the
+ * background after startup, in birth date windows sized from the per-date counts, and kept in sync through
+ * {@link UserChangeEvent}s. Until the load has finished, callers are expected to fall back to the database.
+ */
+@Component
+@Log4j2
+public class UserReadModel implements MetricsSource {
+
+    @Value("${read-model.enabled}")
+    private boolean enabled;
+    @Value("${read-model.initial-capacity}")
+    private int initialCapacity;
+    @Value("${read-model.load-batch-size}")
+    private int loadBatchSize;
+
+    private final UserRepository userRepository;
+
+    private volatile OffHeapUserStore store;
+    private volatile boolean ready;
+
+    public UserReadModel(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        OffHeapUserStore fresh = new OffHeapUserStore(initialCapacity);
+        synchronized (this) {
+            ready = false;
+            store = fresh;
+        }
+        Thread loader = new Thread(() -> load(fresh), "read-model-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void load(OffHeapUserStore target) {
+        long started = System.currentTimeMillis();
+        try {
+            NavigableMap<LocalDate, Long> countsByBirthDate = new TreeMap<>();
+            for (Object[] row : userRepository.countByRoleAndBirthDate()) {
+                countsByBirthDate.merge((LocalDate) row[1], ((Number) row[2]).longValue(), Long::sum);
+            }
+            LocalDate windowStart = null;
+            long windowCount = 0;
+            for (Map.Entry<LocalDate, Long> entry : countsByBirthDate.entrySet()) {
+                if (windowStart == null) {
+                    windowStart = entry.getKey();
+                }
+                windowCount += entry.getValue();
+                if (windowCount >= loadBatchSize) {
+                    loadWindow(target, windowStart, entry.getKey());
+                    windowStart = null;
+                    windowCount = 0;
+                }
+            }
+            if (windowStart != null) {
+                loadWindow(target, windowStart, countsByBirthDate.lastKey());
+            }
+            synchronized (this) {
+                // A rebuild started in the meantime owns readiness now.
+                if (store == target) {
+                    ready = true;
+                }
+            }
+            log.info("Loaded {} users into the read model in {} ms", target.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Could not load the read model; reads keep going to the database", e);
+        }
+    }
+
+    private void loadWindow(OffHeapUserStore target, LocalDate from, LocalDate to) {
+        for (User user : userRepository.findByBirthDateBetween(from, to)) {
+            target.insertIfAbsent(user);
+        }
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        OffHeapUserStore current = store;
+        if (current == null) {
+            return;
+        }
+        if (event.getType() == UserChangeEvent.Type.DELETED) {
+            current.remove(event.getUserId());
+        } else {
+            current.upsert(event.getAfter());
+        }
+    }
+
+    /**
+     * Re-reads users changed on other nodes. When it is not known which ones changed, the whole model is rebuilt and
+     * reads go to the database until that has finished.
+     */
+    @EventListener
+    public void onUserInvalidation(UserInvalidationEvent event) {
+        OffHeapUserStore current = store;
+        if (current == null) {
+            return;
+        }
+        if (event.isAll()) {
+            initialize();
+            return;
+        }
+        for (UUID id : event.getUserIds()) {
+            Optional<User> user = userRepository.findById(id);
+            if (user.isPresent()) {
+                current.upsert(user.get());
+            } else {
+                current.remove(id);
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<User> findAll() {
+        return store.findAll();
+    }
+
+    public List<User> findByBirthDateBetween(LocalDate from, LocalDate to) {
+        return store.findByBirthDateBetween(from, to);
+    }
+
+    public User findById(UUID id) {
+        return store.get(id);
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "readModel";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("ready", ready);
+        OffHeapUserStore current = store;
+        if (current != null) {
+            metrics.put("users", current.size());
+            metrics.put("offHeapBytes", current.getOffHeapBytes());
+            metrics.put("garbageBytes", current.getGarbageBytes());
+        }
+        return metrics;
+    }
+}
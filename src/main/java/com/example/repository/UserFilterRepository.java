@@ -0,0 +1,16 @@
+package com.example.repository;
+
+import com.example.dto.UserSummaryDTO;
+import com.example.model.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface UserFilterRepository {
+
+    /**
+     * Selects only the summary columns of the matching users. Sorting by lastName is case-insensitive.
+     */
+    List<UserSummaryDTO> findSummaries(Specification<User> specification, Sort sort, int offset, int limit);
+}
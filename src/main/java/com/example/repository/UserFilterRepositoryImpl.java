@@ -0,0 +1,47 @@
+package com.example.repository;
+
+import com.example.dto.UserSummaryDTO;
+import com.example.model.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UserFilterRepositoryImpl implements UserFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSummaryDTO> findSummaries(Specification<User> specification, Sort sort, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummaryDTO> query = cb.createQuery(UserSummaryDTO.class);
+        Root<User> root = query.from(User.class);
+        query.select(cb.construct(UserSummaryDTO.class, root.get("id"), root.get("email"), root.get("firstName"),
+                root.get("lastName"), root.get("birthDate"), root.get("role")));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Expression<?> expression = order.getProperty().equals("lastName")
+                    ? cb.lower(root.get("lastName")) : root.get(order.getProperty());
+            orders.add(order.isAscending() ? cb.asc(expression) : cb.desc(expression));
+        }
+        query.orderBy(orders);
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -2,7 +2,11 @@ package com.example.repository;
 
 import com.example.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -10,10 +14,33 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, UUID>, UserFilterRepository {
     List<User> findByBirthDateBetween(LocalDate from, LocalDate to);
     User findByEmail(String email);
 
     boolean existsByEmail(String email);
 
+    @Query("select u.role, u.birthDate, count(u) from User u group by u.role, u.birthDate")
+    List<Object[]> countByRoleAndBirthDate();
+
+    /**
+     * Replaces the password hash only if it is still the one that was checked, so a concurrent change wins.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int replacePasswordHash(@Param("id") UUID id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    /**
+     * Writes the updatable columns of an existing user in one statement, without the select that merging a detached
+     * entity issues first. The email and its domain never change. Returns 0 when the user no longer exists.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.firstName = :#{#user.firstName}, u.lastName = :#{#user.lastName}, "
+            + "u.birthDate = :#{#user.birthDate}, u.address = :#{#user.address}, "
+            + "u.phoneNumber = :#{#user.phoneNumber}, u.password = :#{#user.password}, u.role = :#{#user.role} "
+            + "where u.id = :#{#user.id}")
+    int update(@Param("user") User user);
+
 }
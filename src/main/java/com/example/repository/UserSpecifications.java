@@ -0,0 +1,35 @@
+package com.example.repository;
+
+import com.example.model.Role;
+import com.example.model.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Filter predicates for {@link User}, written against the expressions the V4 indexes are built on.
+ */
+public final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> hasRole(Role role) {
+        return (root, query, cb) -> cb.equal(root.get("role"), role);
+    }
+
+    public static Specification<User> bornBetween(LocalDate from, LocalDate to) {
+        return (root, query, cb) -> cb.between(root.get("birthDate"), from, to);
+    }
+
+    public static Specification<User> lastNameStartsWith(String prefix) {
+        String pattern = prefix.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("lastName")), pattern, '\\');
+    }
+
+    public static Specification<User> hasEmailDomain(String domain) {
+        return (root, query, cb) -> cb.equal(root.get("emailDomain"), domain.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.security;
+
+import com.example.model.Permission;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "authorization")
+public class AuthorizationProperties {
+
+    /**
+     * Checked in order; the first rule matching a request decides which permissions it needs. Requests that match
+     * no rule only need to be authenticated.
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+
+        /**
+         * HTTP method, or empty for any.
+         */
+        private String method;
+        private String pattern;
+        private Set<Permission> permissions = Set.of();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.security;
+
+import com.example.metrics.MetricsSource;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt with the cost picked at startup so that one hash takes about the target time on this hardware. Each cost
+ * step doubles the work, so a few timings at a cheap cost are enough to extrapolate. A configured cost pins the
+ * cost for the whole cluster instead, and calibration is then only logged as a suggestion. Hashes whose cost is
+ * more than the tolerance away from the cost in use report {@link #upgradeEncoding} so that they are rewritten on
+ * the next successful login; the tolerance keeps nodes that calibrate one step apart from rewriting each other's
+ * hashes on every login.
+ */
+@Log4j2
+public class CalibratedPasswordEncoder implements PasswordEncoder, MetricsSource {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+    private static final int MIN_BCRYPT_COST = 4;
+    private static final int PROBE_COST = 8;
+    private static final int PROBE_RUNS = 5;
+
+    private final int cost;
+    private final int tolerance;
+    private final long measuredMillis;
+    private final BCryptPasswordEncoder delegate;
+
+    /**
+     * @param pinnedCost cost to use on every node, or 0 to use the calibrated one
+     * @param tolerance  how many cost steps a stored hash may differ by before it is rewritten
+     */
+    public CalibratedPasswordEncoder(long targetMillis, int minCost, int maxCost, int pinnedCost, int tolerance) {
+        int calibrated = calibrate(TimeUnit.MILLISECONDS.toNanos(targetMillis), Math.max(MIN_BCRYPT_COST, minCost),
+                maxCost);
+        if (pinnedCost > 0 && pinnedCost != calibrated) {
+            log.info("BCrypt cost is pinned to {}; calibration on this node suggests {}", pinnedCost, calibrated);
+        }
+        this.cost = pinnedCost > 0 ? pinnedCost : calibrated;
+        this.tolerance = Math.max(0, tolerance);
+        this.delegate = new BCryptPasswordEncoder(cost);
+        long started = System.nanoTime();
+        delegate.encode(SAMPLE_PASSWORD);
+        this.measuredMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Using BCrypt cost {}: {} ms per hash against a target of {} ms", cost, measuredMillis, targetMillis);
+    }
+
+    static int calibrate(long targetNanos, int minCost, int maxCost) {
+        int probeCost = Math.min(minCost, PROBE_COST);
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(probeCost);
+        String hash = probe.encode(SAMPLE_PASSWORD);
+        // The fastest run is the least disturbed by JIT compilation and other startup work.
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_RUNS; i++) {
+            long started = System.nanoTime();
+            probe.matches(SAMPLE_PASSWORD, hash);
+            fastest = Math.min(fastest, System.nanoTime() - started);
+        }
+        int cost = probeCost;
+        double nanos = fastest;
+        while (cost < maxCost && nanos * 2 <= targetNanos) {
+            cost++;
+            nanos *= 2;
+        }
+        return Math.max(minCost, cost);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Math.abs(Integer.parseInt(matcher.group(1)) - cost) > tolerance;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "passwordHashing";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("algorithm", "bcrypt");
+        metrics.put("cost", cost);
+        metrics.put("rehashTolerance", tolerance);
+        metrics.put("measuredMillis", measuredMillis);
+        return metrics;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.security;
+
+import com.example.model.Permission;
+import com.example.model.Role;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The endpoint rules of {@link AuthorizationProperties}, compiled into a permission bitmask per rule. A request is
+ * allowed when its role's {@link Role#getPermissionMask() mask} covers the mask of the first rule it matches.
+ */
+public class EndpointPermissionTable {
+
+    private final HttpMethod[] methods;
+    private final String[] patterns;
+    private final int[] masks;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public EndpointPermissionTable(List<AuthorizationProperties.Rule> rules) {
+        methods = new HttpMethod[rules.size()];
+        patterns = new String[rules.size()];
+        masks = new int[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            AuthorizationProperties.Rule rule = rules.get(i);
+            if (rule.getPattern() == null || !rule.getPattern().startsWith("/")) {
+                throw new IllegalArgumentException("Authorization rule " + i + " needs a path pattern");
+            }
+            boolean anyMethod = rule.getMethod() == null || rule.getMethod().isBlank();
+            methods[i] = anyMethod ? null : HttpMethod.valueOf(rule.getMethod().trim().toUpperCase(Locale.ROOT));
+            patterns[i] = rule.getPattern();
+            masks[i] = Permission.maskOf(rule.getPermissions());
+        }
+    }
+
+    /**
+     * Mask of the permissions the request needs; 0 when no rule matches it.
+     */
+    public int requiredMask(String method, String path) {
+        for (int i = 0; i < patterns.length; i++) {
+            if ((methods[i] == null || methods[i].matches(method)) && matcher.match(patterns[i], path)) {
+                return masks[i];
+            }
+        }
+        return 0;
+    }
+
+    public boolean isAllowed(Role role, String method, String path) {
+        int required = requiredMask(method, path);
+        return (Role.orGuest(role).getPermissionMask() & required) == required;
+    }
+}
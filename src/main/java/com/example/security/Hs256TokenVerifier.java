@@ -0,0 +1,473 @@
+package com.example.security;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Verifies HS256 tokens directly over the token characters, reusing a per-thread {@link Mac} and scratch buffers.
+ * <p>
+ * It only decides when the outcome is certain to match jjwt 0.9.1's {@code parseClaimsJws} followed by the
+ * expiration check in {@link JwtTokenProvider#validateToken}. This is the case for the canonical header jjwt emits
+ * ({@code {"alg":"HS256"}}), canonical unpadded base64url, a payload that is a plain JSON object, and integral
+ * {@code exp}/{@code nbf} claims that appear at most once. Anything else is {@link Result#UNSURE}, and the caller
+ * must ask jjwt.
+ */
+public class Hs256TokenVerifier {
+
+    public enum Result {
+        ACCEPT,
+        REJECT,
+        UNSURE
+    }
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String CANONICAL_HEADER = "eyJhbGciOiJIUzI1NiJ9";
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int ENCODED_SIGNATURE_LENGTH = 43;
+    private static final int MAX_TOKEN_LENGTH = 8192;
+    private static final int MAX_DEPTH = 64;
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private static final byte[] EXP = {'e', 'x', 'p'};
+    private static final byte[] NBF = {'n', 'b', 'f'};
+    private static final byte[] SUB = {'s', 'u', 'b'};
+
+    private static final int[] BASE64URL = new int[128];
+
+    static {
+        Arrays.fill(BASE64URL, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Scratch> scratch;
+
+    public Hs256TokenVerifier(byte[] key) {
+        this.key = key.length > 0 ? new SecretKeySpec(key, ALGORITHM) : null;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(this.key));
+    }
+
+    public Result verify(String token) {
+        return verify(token, System.currentTimeMillis());
+    }
+
+    Result verify(String token, long nowMillis) {
+        Scratch s = scratch.get();
+        s.token = null;
+        if (key == null || token == null || token.length() > MAX_TOKEN_LENGTH
+                || !token.startsWith(CANONICAL_HEADER) || token.length() <= CANONICAL_HEADER.length()
+                || token.charAt(CANONICAL_HEADER.length()) != '.') {
+            return Result.UNSURE;
+        }
+        int payloadStart = CANONICAL_HEADER.length() + 1;
+        int signatureStart = token.length() - ENCODED_SIGNATURE_LENGTH;
+        if (signatureStart <= payloadStart || token.charAt(signatureStart - 1) != '.') {
+            return Result.UNSURE;
+        }
+        int payloadLength = decode(token, payloadStart, signatureStart - 1, s.payload);
+        if (payloadLength < 0 || decode(token, signatureStart, token.length(), s.provided) != SIGNATURE_LENGTH) {
+            return Result.UNSURE;
+        }
+
+        int signingInputLength = signatureStart - 1;
+        for (int i = 0; i < signingInputLength; i++) {
+            s.signingInput[i] = (byte) token.charAt(i);
+        }
+        try {
+            s.mac.update(s.signingInput, 0, signingInputLength);
+            s.mac.doFinal(s.expected, 0);
+        } catch (ShortBufferException e) {
+            return Result.UNSURE;
+        }
+        if (!MessageDigest.isEqual(s.expected, s.provided)) {
+            return Result.REJECT;
+        }
+
+        if (!scanClaims(s, payloadLength)) {
+            return Result.UNSURE;
+        }
+        if (s.nbf != ABSENT && nowMillis < s.nbf * 1000) {
+            return Result.REJECT;
+        }
+        if (s.exp == ABSENT) {
+            // jjwt accepts it, but validateToken then fails on the missing expiration; leave that to the slow path.
+            return Result.UNSURE;
+        }
+        if (nowMillis > s.exp * 1000) {
+            return Result.REJECT;
+        }
+        s.token = token;
+        return Result.ACCEPT;
+    }
+
+    /**
+     * Returns the {@code sub} claim of a token this verifier accepts, or null when the subject is absent or not
+     * a plain string, in which case the caller should read it through jjwt. A token verified just before on the same
+     * thread is not decoded again.
+     */
+    public String subject(String token) {
+        Scratch s = scratch.get();
+        if (s.token != token && verify(token) != Result.ACCEPT) {
+            return null;
+        }
+        if (s.subStart < 0) {
+            return null;
+        }
+        return new String(s.payload, s.subStart, s.subEnd - s.subStart, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes canonical unpadded base64url into {@code target}, returning the decoded length or -1 when the input
+     * is not canonical or does not fit.
+     */
+    private static int decode(String source, int from, int to, byte[] target) {
+        int length = to - from;
+        int remainder = length & 3;
+        if (remainder == 1 || length * 3 / 4 > target.length) {
+            return -1;
+        }
+        int out = 0;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[out++] = (byte) (bits >> bitCount);
+                bits &= (1 << bitCount) - 1;
+            }
+        }
+        // Leftover bits must be zero, otherwise several encodings would map to the same bytes.
+        return bits == 0 ? out : -1;
+    }
+
+    /**
+     * Validates the payload as a JSON object Jackson is certain to accept, recording {@code exp}, {@code nbf} and
+     * {@code sub}. jjwt only treats a payload as claims when it starts with '{' and ends with '}', and Jackson keeps
+     * the last of duplicate keys, so both are checked strictly.
+     */
+    private static boolean scanClaims(Scratch s, int length) {
+        byte[] json = s.payload;
+        s.exp = ABSENT;
+        s.nbf = ABSENT;
+        s.subStart = -1;
+        s.subEnd = -1;
+        boolean subSeen = false;
+        if (length < 2 || json[0] != '{' || json[length - 1] != '}') {
+            return false;
+        }
+        s.length = length;
+        s.pos = skipWhitespace(s, 1);
+        if (s.pos < length && json[s.pos] == '}') {
+            return s.pos == length - 1;
+        }
+        while (true) {
+            if (s.pos >= length || json[s.pos] != '"') {
+                return false;
+            }
+            int keyStart = s.pos + 1;
+            if (!skipString(s)) {
+                return false;
+            }
+            int keyEnd = s.pos - 1;
+            for (int i = keyStart; i < keyEnd; i++) {
+                if (json[i] == '\\') {
+                    // An escaped key could spell "exp"; do not guess.
+                    return false;
+                }
+            }
+            s.pos = skipWhitespace(s, s.pos);
+            if (s.pos >= length || json[s.pos] != ':') {
+                return false;
+            }
+            s.pos = skipWhitespace(s, s.pos + 1);
+            if (keyEquals(json, keyStart, keyEnd, EXP) || keyEquals(json, keyStart, keyEnd, NBF)) {
+                boolean exp = json[keyStart] == 'e';
+                if ((exp ? s.exp : s.nbf) != ABSENT) {
+                    return false;
+                }
+                long value = parseSeconds(s);
+                if (value == ABSENT) {
+                    return false;
+                }
+                if (exp) {
+                    s.exp = value;
+                } else {
+                    s.nbf = value;
+                }
+            } else if (keyEquals(json, keyStart, keyEnd, SUB)) {
+                int valueStart = s.pos;
+                if (!skipValue(s, 0)) {
+                    return false;
+                }
+                boolean plainString = json[valueStart] == '"';
+                for (int i = valueStart + 1; plainString && i < s.pos - 1; i++) {
+                    plainString = json[i] != '\\';
+                }
+                if (!subSeen && plainString) {
+                    s.subStart = valueStart + 1;
+                    s.subEnd = s.pos - 1;
+                } else {
+                    s.subStart = -1;
+                }
+                subSeen = true;
+            } else if (!skipValue(s, 0)) {
+                return false;
+            }
+            s.pos = skipWhitespace(s, s.pos);
+            if (s.pos >= length) {
+                return false;
+            }
+            if (json[s.pos] == '}') {
+                return s.pos == length - 1;
+            }
+            if (json[s.pos] != ',') {
+                return false;
+            }
+            s.pos = skipWhitespace(s, s.pos + 1);
+        }
+    }
+
+    private static boolean keyEquals(byte[] json, int start, int end, byte[] key) {
+        if (end - start != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (json[start + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipWhitespace(Scratch s, int pos) {
+        while (pos < s.length) {
+            byte b = s.payload[pos];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Parses an integral number of seconds small enough to survive jjwt's conversion to milliseconds.
+     */
+    private static long parseSeconds(Scratch s) {
+        byte[] json = s.payload;
+        int pos = s.pos;
+        boolean negative = pos < s.length && json[pos] == '-';
+        if (negative) {
+            pos++;
+        }
+        int digitsStart = pos;
+        long value = 0;
+        while (pos < s.length && json[pos] >= '0' && json[pos] <= '9') {
+            value = value * 10 + (json[pos] - '0');
+            pos++;
+        }
+        int digits = pos - digitsStart;
+        if (digits == 0 || digits > 15 || (digits > 1 && json[digitsStart] == '0')) {
+            return ABSENT;
+        }
+        if (pos < s.length && (json[pos] == '.' || json[pos] == 'e' || json[pos] == 'E')) {
+            return ABSENT;
+        }
+        s.pos = pos;
+        return negative ? -value : value;
+    }
+
+    private static boolean skipValue(Scratch s, int depth) {
+        if (s.pos >= s.length || depth > MAX_DEPTH) {
+            return false;
+        }
+        byte[] json = s.payload;
+        switch (json[s.pos]) {
+            case '"':
+                return skipString(s);
+            case '{':
+                return skipContainer(s, depth, '}', true);
+            case '[':
+                return skipContainer(s, depth, ']', false);
+            case 't':
+                return skipLiteral(s, "true");
+            case 'f':
+                return skipLiteral(s, "false");
+            case 'n':
+                return skipLiteral(s, "null");
+            default:
+                return skipNumber(s);
+        }
+    }
+
+    private static boolean skipContainer(Scratch s, int depth, char close, boolean object) {
+        byte[] json = s.payload;
+        s.pos = skipWhitespace(s, s.pos + 1);
+        if (s.pos < s.length && json[s.pos] == close) {
+            s.pos++;
+            return true;
+        }
+        while (true) {
+            if (object) {
+                if (s.pos >= s.length || json[s.pos] != '"' || !skipString(s)) {
+                    return false;
+                }
+                s.pos = skipWhitespace(s, s.pos);
+                if (s.pos >= s.length || json[s.pos] != ':') {
+                    return false;
+                }
+                s.pos = skipWhitespace(s, s.pos + 1);
+            }
+            if (!skipValue(s, depth + 1)) {
+                return false;
+            }
+            s.pos = skipWhitespace(s, s.pos);
+            if (s.pos >= s.length) {
+                return false;
+            }
+            if (json[s.pos] == close) {
+                s.pos++;
+                return true;
+            }
+            if (json[s.pos] != ',') {
+                return false;
+            }
+            s.pos = skipWhitespace(s, s.pos + 1);
+        }
+    }
+
+    private static boolean skipString(Scratch s) {
+        byte[] json = s.payload;
+        int pos = s.pos + 1;
+        while (pos < s.length) {
+            int b = json[pos] & 0xFF;
+            if (b == '"') {
+                s.pos = pos + 1;
+                return true;
+            }
+            if (b < 0x20) {
+                return false;
+            }
+            if (b == '\\') {
+                if (++pos >= s.length) {
+                    return false;
+                }
+                switch (json[pos]) {
+                    case '"': case '\\': case '/': case 'b': case 'f': case 'n': case 'r': case 't':
+                        break;
+                    case 'u':
+                        if (pos + 4 >= s.length) {
+                            return false;
+                        }
+                        for (int i = 1; i <= 4; i++) {
+                            if (Character.digit(json[pos + i], 16) < 0) {
+                                return false;
+                            }
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            pos++;
+        }
+        return false;
+    }
+
+    private static boolean skipLiteral(Scratch s, String literal) {
+        if (s.pos + literal.length() > s.length) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (s.payload[s.pos + i] != literal.charAt(i)) {
+                return false;
+            }
+        }
+        s.pos += literal.length();
+        return true;
+    }
+
+    private static boolean skipNumber(Scratch s) {
+        byte[] json = s.payload;
+        int pos = s.pos;
+        if (pos < s.length && json[pos] == '-') {
+            pos++;
+        }
+        int intStart = pos;
+        while (pos < s.length && json[pos] >= '0' && json[pos] <= '9') {
+            pos++;
+        }
+        if (pos == intStart || (pos - intStart > 1 && json[intStart] == '0')) {
+            return false;
+        }
+        if (pos < s.length && json[pos] == '.') {
+            int fractionStart = ++pos;
+            while (pos < s.length && json[pos] >= '0' && json[pos] <= '9') {
+                pos++;
+            }
+            if (pos == fractionStart) {
+                return false;
+            }
+        }
+        if (pos < s.length && (json[pos] == 'e' || json[pos] == 'E')) {
+            pos++;
+            if (pos < s.length && (json[pos] == '+' || json[pos] == '-')) {
+                pos++;
+            }
+            int exponentStart = pos;
+            while (pos < s.length && json[pos] >= '0' && json[pos] <= '9') {
+                pos++;
+            }
+            if (pos == exponentStart) {
+                return false;
+            }
+        }
+        s.pos = pos;
+        return true;
+    }
+
+    private static final class Scratch {
+        final Mac mac;
+        final byte[] signingInput = new byte[MAX_TOKEN_LENGTH];
+        final byte[] payload = new byte[MAX_TOKEN_LENGTH * 3 / 4];
+        final byte[] provided = new byte[SIGNATURE_LENGTH];
+        final byte[] expected = new byte[SIGNATURE_LENGTH];
+
+        String token;
+        int length;
+        int pos;
+        long exp;
+        long nbf;
+        int subStart;
+        int subEnd;
+
+        Scratch(SecretKeySpec key) {
+            Mac instance = null;
+            if (key != null) {
+                try {
+                    instance = Mac.getInstance(ALGORITHM);
+                    instance.init(key);
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("HmacSHA256 is not available", e);
+                }
+            }
+            this.mac = instance;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.security;
 
 import com.example.exception.JwtAuthenticationException;
 import com.example.security.JwtTokenProvider;
+import com.example.timing.ServerTiming;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -26,8 +27,9 @@ public class JwtTokenFilter extends GenericFilterBean {
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain) throws IOException, ServletException {
         String token = jwtTokenProvider.resolveToken((HttpServletRequest) servletRequest);
         try {
-            if (token != null && jwtTokenProvider.validateToken(token)) {
-                Authentication authentication = jwtTokenProvider.getAuthentication(token);
+            if (token != null && ServerTiming.time(ServerTiming.JWT, () -> jwtTokenProvider.validateToken(token))) {
+                Authentication authentication = ServerTiming.time(ServerTiming.AUTH,
+                        () -> jwtTokenProvider.getAuthentication(token));
                 if (authentication != null) {
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
@@ -28,6 +28,8 @@ public class JwtTokenProvider {
     @Value("${spring.jwt.expiration}")
     private long validityInMilliseconds;
 
+    private Hs256TokenVerifier tokenVerifier;
+
     public JwtTokenProvider(@Qualifier("userDetailsServiceImpl") UserDetailsService userDetailsService) {
         this.userDetailsService = userDetailsService;
     }
@@ -35,6 +37,7 @@ public class JwtTokenProvider {
     @PostConstruct
     protected void init() {
         secretKey = Base64.getEncoder().encodeToString(secretKey.getBytes());
+        tokenVerifier = new Hs256TokenVerifier(Base64.getDecoder().decode(secretKey));
     }
 
     public String createToken(String username, String role) {
@@ -52,6 +55,13 @@ public class JwtTokenProvider {
     }
 
     public boolean validateToken(String token) {
+        Hs256TokenVerifier.Result result = tokenVerifier.verify(token);
+        if (result == Hs256TokenVerifier.Result.ACCEPT) {
+            return true;
+        }
+        if (result == Hs256TokenVerifier.Result.REJECT) {
+            throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+        }
         try {
             Jws<Claims> claimsJws = Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token);
             return !claimsJws.getBody().getExpiration().before(new Date());
@@ -66,6 +76,10 @@ public class JwtTokenProvider {
     }
 
     public String getUsername(String token) {
+        String subject = tokenVerifier.subject(token);
+        if (subject != null) {
+            return subject;
+        }
         return Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody().getSubject();
     }
 
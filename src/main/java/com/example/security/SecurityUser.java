@@ -9,20 +9,22 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 
 import java.util.Collection;
-import java.util.List;
+import java.util.Set;
 
 @Data
 public class SecurityUser implements UserDetails {
 
     private final String username;
     private final String password;
-    private final List<SimpleGrantedAuthority> authorities;
+    private final Role role;
+    private final Set<SimpleGrantedAuthority> authorities;
     private final boolean isActive;
 
-    public SecurityUser(String username, String password, List<SimpleGrantedAuthority> authorities, boolean isActive) {
+    public SecurityUser(String username, String password, Role role, boolean isActive) {
         this.username = username;
         this.password = password;
-        this.authorities = authorities;
+        this.role = role;
+        this.authorities = role.getAuthorities();
         this.isActive = isActive;
     }
 
@@ -62,9 +64,6 @@ public class SecurityUser implements UserDetails {
     }
 
     public static UserDetails fromUser(User user) {
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(), user.getPassword(),
-                Role.GUEST.getAuthorities()
-        );
+        return new SecurityUser(user.getEmail(), user.getPassword(), Role.orGuest(user.getRole()), true);
     }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.example.security;
+
+import com.example.model.Role;
+import com.example.model.User;
+import com.example.service.UserService;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates an email and password with a single lookup of the user. The resulting token carries the loaded
+ * {@link User} as its principal, so the caller can issue a JWT without reading the user again.
+ */
+@Component
+public class UserAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String BAD_CREDENTIALS = "Invalid email/password combination";
+
+    private final UserService userService;
+    private final PasswordEncoder passwordEncoder;
+    // Matched against when the email is unknown, so that the response takes as long as for a wrong password.
+    private volatile String unknownUserHash;
+
+    public UserAuthenticationProvider(UserService userService, PasswordEncoder passwordEncoder) {
+        this.userService = userService;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String email = authentication.getName();
+        String password = authentication.getCredentials() != null ? authentication.getCredentials().toString() : null;
+        if (email == null || password == null) {
+            throw new BadCredentialsException(BAD_CREDENTIALS);
+        }
+        User user = userService.findByEmail(email);
+        if (user == null) {
+            passwordEncoder.matches(password, unknownUserHash());
+            throw new BadCredentialsException(BAD_CREDENTIALS);
+        }
+        if (user.getPassword() == null || !passwordEncoder.matches(password, user.getPassword())) {
+            throw new BadCredentialsException(BAD_CREDENTIALS);
+        }
+        UsernamePasswordAuthenticationToken result = new UsernamePasswordAuthenticationToken(user, password,
+                Role.orGuest(user.getRole()).getAuthorities());
+        result.setDetails(authentication.getDetails());
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    private String unknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode("unknown user");
+            unknownUserHash = hash;
+        }
+        return hash;
+    }
+}
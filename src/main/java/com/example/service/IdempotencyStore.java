@@ -0,0 +1,117 @@
+package com.example.service;
+
+import com.example.model.IdempotencyRecord;
+import com.example.repository.IdempotencyRecordRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@Log4j2
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotencyRecord>> records = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.ttl}")
+    private long ttlSeconds;
+    @Value("${idempotency.wait-timeout}")
+    private long waitTimeoutMillis;
+    @Value("${idempotency.retry-after}")
+    private int retryAfterSeconds;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository) {
+        this.repository = repository;
+    }
+
+    public Claim claim(String key) {
+        CompletableFuture<IdempotencyRecord> pending = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> existing = records.putIfAbsent(key, pending);
+        if (existing != null) {
+            return new Claim(false, existing, waitTimeoutMillis);
+        }
+        Optional<IdempotencyRecord> stored = repository.findById(key).filter(record -> !isExpired(record));
+        if (stored.isPresent()) {
+            pending.complete(stored.get());
+            return new Claim(false, pending, waitTimeoutMillis);
+        }
+        return new Claim(true, pending, waitTimeoutMillis);
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void complete(String key, IdempotencyRecord record) {
+        try {
+            repository.save(record);
+        } catch (RuntimeException e) {
+            log.error("Could not persist idempotency key {}", key, e);
+        }
+        CompletableFuture<IdempotencyRecord> pending = records.get(key);
+        if (pending != null) {
+            pending.complete(record);
+        }
+    }
+
+    public void abandon(String key) {
+        CompletableFuture<IdempotencyRecord> pending = records.remove(key);
+        if (pending != null) {
+            pending.complete(null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.eviction-interval}")
+    public void evictExpired() {
+        records.values().removeIf(future -> future.isDone() && isExpired(future.getNow(null)));
+        repository.deleteCreatedBefore(expiryCutoff());
+    }
+
+    private boolean isExpired(IdempotencyRecord record) {
+        return record != null && record.getCreatedAt().isBefore(expiryCutoff());
+    }
+
+    private Instant expiryCutoff() {
+        return Instant.now().minusSeconds(ttlSeconds);
+    }
+
+    public static class Claim {
+        private final boolean owner;
+        private final CompletableFuture<IdempotencyRecord> record;
+        private final long waitTimeoutMillis;
+
+        private Claim(boolean owner, CompletableFuture<IdempotencyRecord> record, long waitTimeoutMillis) {
+            this.owner = owner;
+            this.record = record;
+            this.waitTimeoutMillis = waitTimeoutMillis;
+        }
+
+        public boolean isOwner() {
+            return owner;
+        }
+
+        /**
+         * Waits for the owning request to finish, at most idempotency.wait-timeout; null means it gave up and the
+         * caller should claim again.
+         */
+        public IdempotencyRecord await() throws TimeoutException {
+            try {
+                return record.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted while waiting for the original request");
+            } catch (ExecutionException e) {
+                return null;
+            }
+        }
+    }
+}
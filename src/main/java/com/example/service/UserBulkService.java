@@ -0,0 +1,338 @@
+package com.example.service;
+
+import com.example.dto.UserBulkOperationDTO;
+import com.example.dto.UserBulkRequestDTO;
+import com.example.dto.UserBulkResponseDTO;
+import com.example.dto.UserBulkResultDTO;
+import com.example.event.UserChangeEvent;
+import com.example.exception.BadRequestException;
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import com.example.sharding.EmailShardDirectory;
+import com.example.sharding.ShardContext;
+import com.example.sharding.ShardRouter;
+import com.example.writebehind.UserWriteBehind;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Applies lists of role changes and deletes. The whole list is validated first. It then runs in chunks: each chunk
+ * reads its users with one query and writes them as one JDBC batch per statement. In best-effort mode every chunk
+ * commits on its own, and a chunk that fails is retried one operation at a time to find the culprit. In
+ * all-or-nothing mode all chunks share one transaction. Change events are published only after a commit.
+ */
+@Service
+@Log4j2
+public class UserBulkService {
+
+    private static final String UPDATE_ROLE_SQL = "update users set role = ? where id = ?";
+    private static final String DELETE_SQL = "delete from users where id = ?";
+
+    @Value("${user.bulk.max-operations}")
+    private int maxOperations;
+    @Value("${user.bulk.chunk-size}")
+    private int chunkSize;
+    @Value("${user.bulk.mode}")
+    private UserBulkRequestDTO.Mode defaultMode;
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserWriteBehind writeBehind;
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final ObjectProvider<EmailShardDirectory> emailDirectory;
+
+    public UserBulkService(UserRepository userRepository, DataSource dataSource,
+                           PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                           UserWriteBehind writeBehind, ObjectProvider<ShardRouter> shardRouter,
+                           ObjectProvider<EmailShardDirectory> emailDirectory) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.writeBehind = writeBehind;
+        this.shardRouter = shardRouter;
+        this.emailDirectory = emailDirectory;
+    }
+
+    public UserBulkResponseDTO apply(UserBulkRequestDTO request) {
+        List<UserBulkOperationDTO> operations = request.getOperations();
+        if (operations == null || operations.isEmpty()) {
+            throw new BadRequestException("operations must be a non-empty list");
+        }
+        if (operations.size() > maxOperations) {
+            throw new BadRequestException("At most " + maxOperations + " operations can be applied at once");
+        }
+        UserBulkRequestDTO.Mode mode = request.getMode() != null ? request.getMode() : defaultMode;
+        ShardRouter router = shardRouter.getIfAvailable();
+        if (router != null && mode == UserBulkRequestDTO.Mode.ALL_OR_NOTHING) {
+            throw new BadRequestException("All-or-nothing bulk changes cannot span shards; use BEST_EFFORT");
+        }
+
+        UserBulkResultDTO[] results = new UserBulkResultDTO[operations.size()];
+        List<Integer> valid = validate(operations, results);
+        if (valid.size() < operations.size() && mode == UserBulkRequestDTO.Mode.ALL_OR_NOTHING) {
+            fill(operations, results, UserBulkResultDTO.Status.SKIPPED, "Not applied: the request has invalid operations");
+            return response(mode, results);
+        }
+        if (writeBehind.hasPending()) {
+            // Waiting updates carry the old role and would overwrite the new one when flushed later.
+            writeBehind.flush();
+        }
+
+        if (mode == UserBulkRequestDTO.Mode.ALL_OR_NOTHING) {
+            applyAllOrNothing(operations, valid, results);
+        } else if (router == null) {
+            applyBestEffort(operations, valid, results);
+        } else {
+            Map<Integer, List<Integer>> byShard = new LinkedHashMap<>();
+            for (int index : valid) {
+                byShard.computeIfAbsent(router.shardFor(operations.get(index).getId()), shard -> new ArrayList<>())
+                        .add(index);
+            }
+            for (Map.Entry<Integer, List<Integer>> shard : byShard.entrySet()) {
+                Integer previous = ShardContext.enter(shard.getKey());
+                try {
+                    applyBestEffort(operations, shard.getValue(), results);
+                } finally {
+                    ShardContext.exit(previous);
+                }
+            }
+        }
+        return response(mode, results);
+    }
+
+    private static List<Integer> validate(List<UserBulkOperationDTO> operations, UserBulkResultDTO[] results) {
+        List<Integer> valid = new ArrayList<>(operations.size());
+        Set<UUID> ids = new HashSet<>();
+        for (int index = 0; index < operations.size(); index++) {
+            UserBulkOperationDTO operation = operations.get(index);
+            String problem = null;
+            if (operation == null || operation.getType() == null || operation.getId() == null) {
+                problem = "type and id are required";
+            } else if (operation.getType() == UserBulkOperationDTO.Type.UPDATE_ROLE && operation.getRole() == null) {
+                problem = "role is required to update the role";
+            } else if (!ids.add(operation.getId())) {
+                problem = "the user already has an operation in this request";
+            }
+            if (problem != null) {
+                results[index] = result(index, operation, UserBulkResultDTO.Status.INVALID, problem);
+            } else {
+                valid.add(index);
+            }
+        }
+        return valid;
+    }
+
+    private void applyAllOrNothing(List<UserBulkOperationDTO> operations, List<Integer> valid,
+                                   UserBulkResultDTO[] results) {
+        List<UserChangeEvent> events = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < valid.size(); from += chunkSize) {
+                    List<Integer> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+                    if (!applyChunk(operations, chunk, results, events)) {
+                        throw new ChunkFailedException();
+                    }
+                }
+            });
+        } catch (ChunkFailedException e) {
+            rollBack(operations, results, "Rolled back: another operation failed");
+            return;
+        } catch (DataAccessException e) {
+            log.warn("Bulk user change rolled back", e);
+            rollBack(operations, results, "Rolled back: " + e.getMostSpecificCause().getMessage());
+            return;
+        }
+        publish(events);
+    }
+
+    private void applyBestEffort(List<UserBulkOperationDTO> operations, List<Integer> indexes,
+                                 UserBulkResultDTO[] results) {
+        for (int from = 0; from < indexes.size(); from += chunkSize) {
+            List<Integer> chunk = indexes.subList(from, Math.min(from + chunkSize, indexes.size()));
+            List<UserChangeEvent> events = new ArrayList<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyChunk(operations, chunk, results, events));
+                publish(events);
+            } catch (DataAccessException e) {
+                log.warn("Bulk user change chunk failed; retrying its {} operations one by one", chunk.size(), e);
+                for (int index : chunk) {
+                    applySingle(operations, index, results);
+                }
+            }
+        }
+    }
+
+    private void applySingle(List<UserBulkOperationDTO> operations, int index, UserBulkResultDTO[] results) {
+        List<UserChangeEvent> events = new ArrayList<>(1);
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyChunk(operations, List.of(index), results, events));
+            publish(events);
+        } catch (DataAccessException e) {
+            results[index] = result(index, operations.get(index), UserBulkResultDTO.Status.FAILED,
+                    e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Runs one chunk inside the caller's transaction and records the result of every operation in it; returns false
+     * when any of its users does not exist.
+     */
+    private boolean applyChunk(List<UserBulkOperationDTO> operations, List<Integer> chunk, UserBulkResultDTO[] results,
+                               List<UserChangeEvent> events) {
+        List<UUID> ids = new ArrayList<>(chunk.size());
+        for (int index : chunk) {
+            ids.add(operations.get(index).getId());
+        }
+        Map<UUID, User> existing = new HashMap<>();
+        for (User user : userRepository.findAllById(ids)) {
+            existing.put(user.getId(), user);
+        }
+
+        boolean complete = true;
+        List<Integer> updates = new ArrayList<>();
+        List<Integer> deletes = new ArrayList<>();
+        for (int index : chunk) {
+            UserBulkOperationDTO operation = operations.get(index);
+            if (!existing.containsKey(operation.getId())) {
+                results[index] = result(index, operation, UserBulkResultDTO.Status.NOT_FOUND, null);
+                complete = false;
+            } else if (operation.getType() == UserBulkOperationDTO.Type.UPDATE_ROLE) {
+                updates.add(index);
+            } else {
+                deletes.add(index);
+            }
+        }
+        List<UserChangeEvent> chunkEvents = new ArrayList<>(updates.size() + deletes.size());
+        complete &= batch(UserBulkOperationDTO.Type.UPDATE_ROLE, operations, updates, results, existing, chunkEvents);
+        complete &= batch(UserBulkOperationDTO.Type.DELETE, operations, deletes, results, existing, chunkEvents);
+        events.addAll(chunkEvents);
+        return complete;
+    }
+
+    private boolean batch(UserBulkOperationDTO.Type type, List<UserBulkOperationDTO> operations, List<Integer> indexes,
+                          UserBulkResultDTO[] results, Map<UUID, User> existing, List<UserChangeEvent> events) {
+        if (indexes.isEmpty()) {
+            return true;
+        }
+        List<Object[]> rows = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            UserBulkOperationDTO operation = operations.get(index);
+            rows.add(type == UserBulkOperationDTO.Type.DELETE ? new Object[]{operation.getId()}
+                    : new Object[]{operation.getRole().name(), operation.getId()});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(type == UserBulkOperationDTO.Type.DELETE ? DELETE_SQL : UPDATE_ROLE_SQL,
+                rows);
+        boolean complete = true;
+        for (int i = 0; i < indexes.size(); i++) {
+            int index = indexes.get(i);
+            UserBulkOperationDTO operation = operations.get(index);
+            if (counts[i] == 0) {
+                // Deleted by someone else since it was read.
+                results[index] = result(index, operation, UserBulkResultDTO.Status.NOT_FOUND, null);
+                complete = false;
+                continue;
+            }
+            User before = existing.get(operation.getId());
+            if (type == UserBulkOperationDTO.Type.DELETE) {
+                events.add(UserChangeEvent.deleted(before));
+            } else {
+                User after = copy(before);
+                after.setRole(operation.getRole());
+                events.add(UserChangeEvent.updated(before, after));
+            }
+            results[index] = result(index, operation, UserBulkResultDTO.Status.OK, null);
+        }
+        return complete;
+    }
+
+    private void publish(List<UserChangeEvent> events) {
+        EmailShardDirectory directory = emailDirectory.getIfAvailable();
+        for (UserChangeEvent event : events) {
+            if (event.getType() == UserChangeEvent.Type.DELETED) {
+                writeBehind.discard(event.getUserId());
+                if (directory != null) {
+                    directory.remove(event.getBefore().getEmail());
+                }
+            }
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    private static void rollBack(List<UserBulkOperationDTO> operations, UserBulkResultDTO[] results, String message) {
+        for (int index = 0; index < results.length; index++) {
+            if (results[index] != null && results[index].getStatus() == UserBulkResultDTO.Status.OK) {
+                results[index] = null;
+            }
+        }
+        fill(operations, results, UserBulkResultDTO.Status.ROLLED_BACK, message);
+    }
+
+    private static void fill(List<UserBulkOperationDTO> operations, UserBulkResultDTO[] results,
+                             UserBulkResultDTO.Status status, String message) {
+        for (int index = 0; index < results.length; index++) {
+            if (results[index] == null) {
+                results[index] = result(index, operations.get(index), status, message);
+            }
+        }
+    }
+
+    private static UserBulkResponseDTO response(UserBulkRequestDTO.Mode mode, UserBulkResultDTO[] results) {
+        int succeeded = 0;
+        for (UserBulkResultDTO result : results) {
+            if (result.getStatus() == UserBulkResultDTO.Status.OK) {
+                succeeded++;
+            }
+        }
+        return new UserBulkResponseDTO(mode, succeeded, results.length - succeeded, Arrays.asList(results));
+    }
+
+    private static UserBulkResultDTO result(int index, UserBulkOperationDTO operation, UserBulkResultDTO.Status status,
+                                            String message) {
+        return new UserBulkResultDTO(index, operation != null ? operation.getId() : null, status, message);
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setPassword(user.getPassword());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setBirthDate(user.getBirthDate());
+        copy.setAddress(user.getAddress());
+        copy.setPhoneNumber(user.getPhoneNumber());
+        copy.setRole(user.getRole());
+        return copy;
+    }
+
+    /**
+     * Aborts the all-or-nothing transaction; the failed operations have already recorded why.
+     */
+    private static class ChunkFailedException extends RuntimeException {
+
+        ChunkFailedException() {
+            super(null, null, false, false);
+        }
+    }
+}
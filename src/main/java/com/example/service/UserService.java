@@ -1,34 +1,88 @@
 package com.example.service;
 
+import com.example.cache.BirthDateRangeCache;
+import com.example.dto.UserBatchResponseDTO;
+import com.example.dto.UserFilterDTO;
+import com.example.dto.SimilarUserDTO;
+import com.example.dto.UserPageDTO;
+import com.example.dto.UserSummaryDTO;
+import com.example.event.UserChangeEvent;
 import com.example.exception.BadRequestException;
 import com.example.exception.ResourceNotFoundException;
+import com.example.exception.ValidationException;
+import com.example.model.Permission;
+import com.example.model.Role;
 import com.example.model.User;
+import com.example.readmodel.UserReadModel;
 import com.example.repository.UserRepository;
+import com.example.repository.UserSpecifications;
+import com.example.security.SecurityUser;
+import com.example.similarity.SimilarUserIndex;
 import com.example.validator.UserValidator;
+import com.example.validator.ValidationError;
+import com.example.validator.ValidationResult;
+import com.example.writebehind.UserWriteBehind;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class UserService {
 
+    private static final int REGISTRATION_CANDIDATES = 10;
+
     private final UserRepository userRepository;
     private final UserValidator userValidator;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserReadModel readModel;
+    private final BirthDateRangeCache rangeCache;
+    private final UserWriteBehind writeBehind;
+    private final SimilarUserIndex similarUsers;
 
+    @Value("${user.batch.max-ids}")
+    private int batchMaxIds;
+    @Value("${user.filter.max-page-size}")
+    private int filterMaxPageSize;
+    @Value("${user.filter.max-offset}")
+    private int filterMaxOffset;
+    @Value("${similar-users.registration-check}")
+    private boolean registrationCheck;
+    @Value("${similar-users.registration-threshold}")
+    private double registrationThreshold;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserValidator userValidator) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserValidator userValidator,
+                       ApplicationEventPublisher eventPublisher, UserReadModel readModel,
+                       BirthDateRangeCache rangeCache, UserWriteBehind writeBehind, SimilarUserIndex similarUsers) {
         this.userRepository = userRepository;
         this.userValidator = userValidator;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.readModel = readModel;
+        this.rangeCache = rangeCache;
+        this.writeBehind = writeBehind;
+        this.similarUsers = similarUsers;
     }
 
     private void encodePassword(User user) {
@@ -36,33 +90,127 @@ public class UserService {
     }
 
     public User findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        User user = userRepository.findByEmail(email);
+        return user != null ? withPendingUpdate(user) : null;
+    }
+
+    /**
+     * Re-hashes the password just verified for this user when its stored hash was made with a different cost than
+     * the encoder's current one. The hash is the same secret in another encoding, so no change event is published.
+     */
+    public boolean rehashPasswordIfNeeded(User user, String rawPassword) {
+        if (rawPassword == null || !passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return false;
+        }
+        return userRepository.replacePasswordHash(user.getId(), user.getPassword(), passwordEncoder.encode(rawPassword)) == 1;
     }
 
     public User register(User user) {
+        if (registrationCheck && similarUsers.isEnabled()
+                && !rescoredSimilarUsers(user, REGISTRATION_CANDIDATES, registrationThreshold).isEmpty()) {
+            throw new ValidationException(ValidationResult.of(ValidationError.POSSIBLE_DUPLICATE));
+        }
         encodePassword(user);
         return createUser(user);
     }
 
     public List<User> getAllUsers() {
-        return userRepository.findAll();
+        List<User> users = readModel.isReady() ? readModel.findAll() : userRepository.findAll();
+        return writeBehind.hasPending() ? writeBehind.overlay(users, user -> true) : users;
+    }
+
+    public UserBatchResponseDTO getUsersByIds(List<UUID> ids) {
+        if (ids == null || ids.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("ids must be a list of user IDs");
+        }
+        Set<UUID> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > batchMaxIds) {
+            throw new BadRequestException("At most " + batchMaxIds + " ids can be requested at once");
+        }
+        Map<UUID, User> found = new HashMap<>();
+        if (!requested.isEmpty()) {
+            for (User user : userRepository.findAllById(requested)) {
+                found.put(user.getId(), user);
+            }
+        }
+        List<User> users = new ArrayList<>(found.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : requested) {
+            User user = found.get(id);
+            if (user != null) {
+                users.add(withPendingUpdate(user));
+            } else {
+                missing.add(id);
+            }
+        }
+        return new UserBatchResponseDTO(users, missing);
+    }
+
+    /**
+     * Likely duplicates of the user, most similar first. Candidates come from the index and are re-scored against
+     * their current rows, so users changed or deleted since they were indexed are not reported on stale data.
+     */
+    public List<SimilarUserDTO> findSimilarUsers(UUID id, int limit) {
+        if (!similarUsers.isEnabled()) {
+            throw new BadRequestException("Similar user lookup is disabled");
+        }
+        if (limit < 1 || limit > batchMaxIds) {
+            throw new BadRequestException("limit must be between 1 and " + batchMaxIds);
+        }
+        return rescoredSimilarUsers(findById(id), limit, similarUsers.getThreshold());
+    }
+
+    private List<SimilarUserDTO> rescoredSimilarUsers(User user, int limit, double threshold) {
+        List<UUID> ids = new ArrayList<>();
+        for (SimilarUserIndex.Match match : similarUsers.findSimilar(user, limit, threshold)) {
+            ids.add(match.getId());
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<SimilarUserDTO> similar = new ArrayList<>(ids.size());
+        for (User candidate : getUsersByIds(ids).getUsers()) {
+            double similarity = similarUsers.similarity(user, candidate);
+            if (similarity >= threshold) {
+                similar.add(new SimilarUserDTO(candidate.getId(), candidate.getEmail(), candidate.getFirstName(),
+                        candidate.getLastName(), candidate.getPhoneNumber(), similarity));
+            }
+        }
+        similar.sort(Comparator.comparingDouble(SimilarUserDTO::getSimilarity).reversed());
+        return similar;
     }
 
     public Optional<User> getUserById(UUID id) {
-        return userRepository.findById(id);
+        return userRepository.findById(id).map(this::withPendingUpdate);
     }
 
+    /**
+     * New users always start as {@link Role#GUEST}, whatever role the request carried; roles are granted afterwards
+     * by an update from a caller holding {@link Permission#WRITE}.
+     */
     public User createUser(User user) {
-        userValidator.validateSaveEntity(user);
+        user.setRole(Role.GUEST);
+        ValidationResult validation = userValidator.validateSaveEntity(user);
+        if (!validation.isValid()) {
+            throw new ValidationException(validation);
+        }
+        User createdUser;
         try {
-            return userRepository.save(user);
+            createdUser = userRepository.save(user);
         } catch (RuntimeException e) {
             throw new BadRequestException(e.getMessage());
         }
+        eventPublisher.publishEvent(UserChangeEvent.created(createdUser));
+        return createdUser;
     }
 
 
 
+    /**
+     * In write-behind mode the merged user is journaled and acknowledged, and written to the database with the next
+     * batch; successive updates of the same user build on the one still waiting. Changing the role is refused unless
+     * the caller holds {@link Permission#WRITE}.
+     */
     public User updateUser(User updatedUser) {
         User oldUser = findById(updatedUser.getId());
         if (updatedUser.getFirstName() == null) {
@@ -75,7 +223,7 @@ public class UserService {
             updatedUser.setEmail(oldUser.getEmail());
         }
         if (updatedUser.getEmail() != oldUser.getEmail() ) {
-            throw new BadRequestException("Email can't be changed");
+            throw new ValidationException(ValidationResult.of(ValidationError.EMAIL_IMMUTABLE));
         }
         if (updatedUser.getBirthDate() == null) {
             updatedUser.setBirthDate(oldUser.getBirthDate());
@@ -88,31 +236,142 @@ public class UserService {
         }
         if (updatedUser.getRole() == null) {
             updatedUser.setRole(oldUser.getRole());
+        } else if (updatedUser.getRole() != oldUser.getRole() && !callerHolds(Permission.WRITE)) {
+            throw new AccessDeniedException("Changing a user's role requires the write permission");
         }
         if (updatedUser.getPassword() == null) {
             updatedUser.setPassword(oldUser.getPassword());
         }
 
-        userValidator.validateUpdateEntity(updatedUser);
-
-        try {
-            return userRepository.save(updatedUser);
-        } catch (RuntimeException e){
-            throw new BadRequestException(e.getMessage());
+        ValidationResult validation = userValidator.validateUpdateEntity(updatedUser, oldUser);
+        if (!validation.isValid()) {
+            throw new ValidationException(validation);
         }
 
+        User result;
+        if (writeBehind.isEnabled()) {
+            writeBehind.enqueue(updatedUser);
+            result = updatedUser;
+        } else {
+            int updated;
+            try {
+                updated = userRepository.update(updatedUser);
+            } catch (RuntimeException e){
+                throw new BadRequestException(e.getMessage());
+            }
+            if (updated == 0) {
+                throw new ResourceNotFoundException("User with ID " + updatedUser.getId() + " not found");
+            }
+            result = updatedUser;
+        }
+        eventPublisher.publishEvent(writeBehind.isEnabled() ? UserChangeEvent.deferredUpdate(oldUser, result)
+                : UserChangeEvent.updated(oldUser, result));
+        return result;
     }
 
     public User findById(UUID id) {
         return userRepository.findById(id)
+                .map(this::withPendingUpdate)
                 .orElseThrow(() -> new ResourceNotFoundException("User with ID " + id + " not found"));
     }
 
+    private static boolean callerHolds(Permission permission) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof SecurityUser
+                && (((SecurityUser) authentication.getPrincipal()).getRole().getPermissionMask() & permission.getMask()) != 0;
+    }
+
+    private User withPendingUpdate(User user) {
+        return writeBehind.hasPending() ? writeBehind.pending(user.getId()).orElse(user) : user;
+    }
+
     public void deleteUser(UUID id) {
+        User user = findById(id);
+        writeBehind.discard(id);
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(UserChangeEvent.deleted(user));
     }
 
     public List<User> findUsersByBirthDateRange(LocalDate from, LocalDate to) {
-        return userRepository.findByBirthDateBetween(from, to);
+        return rangeCache.get(from, to, () -> loadUsersByBirthDateRange(from, to));
+    }
+
+    private List<User> loadUsersByBirthDateRange(LocalDate from, LocalDate to) {
+        List<User> users = readModel.isReady() ? readModel.findByBirthDateBetween(from, to)
+                : userRepository.findByBirthDateBetween(from, to);
+        if (!writeBehind.hasPending()) {
+            return users;
+        }
+        return writeBehind.overlay(users, user -> user.getBirthDate() != null
+                && !user.getBirthDate().isBefore(from) && !user.getBirthDate().isAfter(to));
+    }
+
+    /**
+     * Runs a filter only when an index can narrow it down: a last name prefix or a bounded birth date range. An email
+     * domain or a role alone matches a large share of the table, so each is only accepted alongside one of these. Pages
+     * are capped in size and depth, since deep offsets are read and thrown away by the database.
+     */
+    public UserPageDTO filterUsers(UserFilterDTO filter) {
+        if (filter.getSize() < 1 || filter.getSize() > filterMaxPageSize) {
+            throw new BadRequestException("size must be between 1 and " + filterMaxPageSize);
+        }
+        if (filter.getPage() < 0 || (long) filter.getPage() * filter.getSize() > filterMaxOffset) {
+            throw new BadRequestException("Pages beyond the first " + filterMaxOffset + " results are not available; "
+                    + "narrow the filter instead");
+        }
+        Specification<User> specification = null;
+        if (hasText(filter.getNamePrefix())) {
+            specification = Specification.where(UserSpecifications.lastNameStartsWith(filter.getNamePrefix().trim()));
+        }
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            if (filter.getFrom() == null || filter.getTo() == null || filter.getFrom().isAfter(filter.getTo())) {
+                throw new BadRequestException("from and to must both be given, with from not after to");
+            }
+            specification = and(specification, UserSpecifications.bornBetween(filter.getFrom(), filter.getTo()));
+        }
+        if (specification == null) {
+            throw new BadRequestException("Filter by namePrefix or a from/to birth date range");
+        }
+        // A domain such as gmail.com matches too many rows to be filtered and sorted on its own.
+        if (hasText(filter.getEmailDomain())) {
+            specification = specification.and(UserSpecifications.hasEmailDomain(filter.getEmailDomain().trim()));
+        }
+        if (filter.getRole() != null) {
+            specification = specification.and(UserSpecifications.hasRole(filter.getRole()));
+        }
+
+        if (writeBehind.hasPending()) {
+            // Summaries are projected by the database, so waiting updates are written first.
+            writeBehind.flush();
+        }
+        int offset = filter.getPage() * filter.getSize();
+        List<UserSummaryDTO> users = userRepository.findSummaries(specification, filterSort(filter.getSort()), offset,
+                filter.getSize() + 1);
+        boolean hasNext = users.size() > filter.getSize();
+        if (hasNext) {
+            users = users.subList(0, filter.getSize());
+        }
+        return new UserPageDTO(users, filter.getPage(), filter.getSize(), hasNext);
+    }
+
+    private static Sort filterSort(String sort) {
+        String property = sort == null ? "birthDate" : sort.trim();
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (property.startsWith("-")) {
+            property = property.substring(1);
+            direction = Sort.Direction.DESC;
+        }
+        if (!property.equals("birthDate") && !property.equals("lastName")) {
+            throw new BadRequestException("sort must be birthDate or lastName, optionally prefixed with '-'");
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    private static Specification<User> and(Specification<User> specification, Specification<User> next) {
+        return specification == null ? Specification.where(next) : specification.and(next);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
     }
 }
@@ -0,0 +1,171 @@
+package com.example.service;
+
+import com.example.dto.UserStatisticsDTO;
+import com.example.event.UserChangeEvent;
+import com.example.model.Role;
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps user counts by role and by birth date in memory. Age buckets are derived from the birth date
+ * counters at read time, so they roll over with the calendar without touching the counters.
+ */
+@Component
+@Log4j2
+public class UserStatistics {
+
+    private static final int[] AGE_BUCKET_BOUNDS = {25, 35, 45, 55, 65};
+    private static final String UNASSIGNED_ROLE = "UNASSIGNED";
+
+    @Value("${user.age.limit}")
+    private int userAgeLimit;
+    private final UserRepository userRepository;
+
+    private volatile Counters counters = new Counters();
+    private volatile Snapshot snapshot;
+
+    public UserStatistics(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${user.statistics.reconcile-interval}",
+            initialDelayString = "${user.statistics.reconcile-interval}")
+    public void reconcile() {
+        Counters fresh = new Counters();
+        for (Object[] row : userRepository.countByRoleAndBirthDate()) {
+            fresh.add((Role) row[0], (LocalDate) row[1], ((Number) row[2]).longValue());
+        }
+        // Changes applied between the query and the swap are lost until the next run; this is accepted.
+        counters = fresh;
+        log.debug("Reconciled user statistics with the database.");
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        Counters current = counters;
+        switch (event.getType()) {
+            case CREATED:
+                current.add(event.getAfter(), 1);
+                break;
+            case UPDATED:
+                User before = event.getBefore();
+                User after = event.getAfter();
+                if (before.getRole() != after.getRole() || !Objects.equals(before.getBirthDate(), after.getBirthDate())) {
+                    current.add(before, -1);
+                    current.add(after, 1);
+                }
+                break;
+            case DELETED:
+                current.add(event.getBefore(), -1);
+                break;
+        }
+    }
+
+    public UserStatisticsDTO getStatistics() {
+        LocalDate today = LocalDate.now();
+        Counters current = counters;
+        long version = current.version.get();
+        Snapshot cached = snapshot;
+        if (cached != null && cached.counters == current && cached.version == version && cached.day.equals(today)) {
+            return cached.statistics;
+        }
+        UserStatisticsDTO statistics = compute(current, today);
+        snapshot = new Snapshot(current, version, today, statistics);
+        return statistics;
+    }
+
+    private UserStatisticsDTO compute(Counters current, LocalDate today) {
+        Map<String, Long> byRole = new LinkedHashMap<>();
+        long total = 0;
+        for (int i = 0; i < current.byRole.length; i++) {
+            long count = current.byRole[i].sum();
+            byRole.put(i < Role.values().length ? Role.values()[i].name() : UNASSIGNED_ROLE, count);
+            total += count;
+        }
+
+        // A user is at least N years old exactly when they were born on or before today minus N years.
+        Map<String, Long> byAgeBucket = new LinkedHashMap<>();
+        NavigableMap<LocalDate, LongAdder> byBirthDate = current.byBirthDate;
+        byAgeBucket.put("0-" + (userAgeLimit - 1), sum(byBirthDate.tailMap(today.minusYears(userAgeLimit), false)));
+        int lower = userAgeLimit;
+        for (int upper : AGE_BUCKET_BOUNDS) {
+            if (upper <= lower) {
+                continue;
+            }
+            byAgeBucket.put(lower + "-" + (upper - 1),
+                    sum(byBirthDate.subMap(today.minusYears(upper), false, today.minusYears(lower), true)));
+            lower = upper;
+        }
+        byAgeBucket.put(lower + "+", sum(byBirthDate.headMap(today.minusYears(lower), true)));
+
+        return new UserStatisticsDTO(today, total, Collections.unmodifiableMap(byRole),
+                Collections.unmodifiableMap(byAgeBucket));
+    }
+
+    private static long sum(Map<LocalDate, LongAdder> counts) {
+        long sum = 0;
+        for (LongAdder count : counts.values()) {
+            sum += count.sum();
+        }
+        return sum;
+    }
+
+    private static class Counters {
+        private final LongAdder[] byRole = new LongAdder[Role.values().length + 1];
+        private final ConcurrentSkipListMap<LocalDate, LongAdder> byBirthDate = new ConcurrentSkipListMap<>();
+        private final AtomicLong version = new AtomicLong();
+
+        private Counters() {
+            for (int i = 0; i < byRole.length; i++) {
+                byRole[i] = new LongAdder();
+            }
+        }
+
+        private void add(User user, long delta) {
+            add(user.getRole(), user.getBirthDate(), delta);
+        }
+
+        private void add(Role role, LocalDate birthDate, long delta) {
+            byRole[role == null ? Role.values().length : role.ordinal()].add(delta);
+            if (birthDate != null) {
+                byBirthDate.computeIfAbsent(birthDate, date -> new LongAdder()).add(delta);
+            }
+            version.incrementAndGet();
+        }
+    }
+
+    private static class Snapshot {
+        private final Counters counters;
+        private final long version;
+        private final LocalDate day;
+        private final UserStatisticsDTO statistics;
+
+        private Snapshot(Counters counters, long version, LocalDate day, UserStatisticsDTO statistics) {
+            this.counters = counters;
+            this.version = version;
+            this.day = day;
+            this.statistics = statistics;
+        }
+    }
+}
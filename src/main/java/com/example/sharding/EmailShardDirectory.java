@@ -0,0 +1,54 @@
+package com.example.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+// Global email -> shard mapping, kept on the first shard. Its primary key also makes emails unique across shards.
+public class EmailShardDirectory {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmailShardDirectory(DataSource directoryDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(directoryDataSource);
+    }
+
+    public Entry find(String email) {
+        List<Entry> entries = jdbcTemplate.query("select user_id, shard from user_email_directory where email = ?",
+                (rs, rowNum) -> new Entry((UUID) rs.getObject("user_id"), rs.getInt("shard")), email);
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    public void register(String email, UUID userId, int shard) {
+        jdbcTemplate.update("insert into user_email_directory (email, user_id, shard) values (?, ?, ?)",
+                email, userId, shard);
+    }
+
+    public void remove(String email) {
+        jdbcTemplate.update("delete from user_email_directory where email = ?", email);
+    }
+
+    public void clear() {
+        jdbcTemplate.update("delete from user_email_directory");
+    }
+
+    public static class Entry {
+        private final UUID userId;
+        private final int shard;
+
+        private Entry(UUID userId, int shard) {
+            this.userId = userId;
+            this.shard = shard;
+        }
+
+        public UUID getUserId() {
+            return userId;
+        }
+
+        public int getShard() {
+            return shard;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.sharding;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+public class ShardRouter implements DisposableBean {
+
+    private final List<DataSource> dataSources;
+
+    public ShardRouter(List<DataSource> dataSources) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be configured");
+        }
+        this.dataSources = List.copyOf(dataSources);
+    }
+
+    public int shardFor(UUID id) {
+        // Mix both halves so that time-ordered ids spread as evenly as random ones.
+        long hash = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return Math.floorMod(hash, dataSources.size());
+    }
+
+    public int getShardCount() {
+        return dataSources.size();
+    }
+
+    public DataSource getDataSource(int shard) {
+        return dataSources.get(shard);
+    }
+
+    public List<DataSource> getDataSources() {
+        return dataSources;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof Closeable) {
+                ((Closeable) dataSource).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+@EnableAspectJAutoProxy
+public class ShardingConfiguration {
+
+    // HikariCP's own default, for shard data sources that do not report a pool size.
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties) {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            dataSources.add(DataSourceBuilder.create()
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build());
+        }
+        return new ShardRouter(dataSources);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRouter shardRouter) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            targets.put(shard, shardRouter.getDataSource(shard));
+        }
+        ShardRoutingDataSource dataSource = new ShardRoutingDataSource();
+        dataSource.setTargetDataSources(targets);
+        dataSource.setDefaultTargetDataSource(shardRouter.getDataSource(0));
+        return dataSource;
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(ShardRouter shardRouter) {
+        return flyway -> {
+            for (DataSource dataSource : shardRouter.getDataSources()) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(dataSource)
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+
+    @Bean
+    public EmailShardDirectory emailShardDirectory(ShardRouter shardRouter) {
+        return new EmailShardDirectory(shardRouter.getDataSource(0));
+    }
+
+    @Bean
+    public ShardingRepositoryAspect shardingRepositoryAspect(ShardRouter shardRouter, EmailShardDirectory directory) {
+        int connections = 0;
+        for (DataSource dataSource : shardRouter.getDataSources()) {
+            connections += dataSource instanceof HikariDataSource
+                    ? ((HikariDataSource) dataSource).getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+        }
+        return new ShardingRepositoryAspect(shardRouter, directory, connections);
+    }
+}
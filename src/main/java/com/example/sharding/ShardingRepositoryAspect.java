@@ -0,0 +1,478 @@
+package com.example.sharding;
+
+import com.example.dto.UserSummaryDTO;
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes {@link UserRepository} calls to the shard owning the user: by id hash for id-keyed calls and through the
+ * {@link EmailShardDirectory} for email lookups. Bulk saves and deletes are split by shard. Everything else is
+ * scattered to all shards and the results merged, pages included. Repository methods whose results cannot be merged
+ * are rejected at startup rather than on their first call.
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ShardingRepositoryAspect implements DisposableBean {
+
+    private static final Map<String, Comparator<User>> MERGE_ORDER = Map.of(
+            "findByBirthDateBetween", Comparator.comparing(User::getBirthDate).thenComparing(User::getId));
+
+    private static final Set<Class<?>> MERGEABLE = Set.of(void.class, boolean.class, Boolean.class, long.class,
+            Long.class, int.class, Integer.class, Optional.class, User.class);
+
+    private final ShardRouter router;
+    private final EmailShardDirectory directory;
+    private final ExecutorService executor;
+
+    /**
+     * @param queryThreads threads for scatter-gather calls; sized to the shards' connection pools so that concurrent
+     *                     cross-shard reads are limited by connections rather than queued behind one thread per shard
+     */
+    public ShardingRepositoryAspect(ShardRouter router, EmailShardDirectory directory, int queryThreads) {
+        validate(UserRepository.class);
+        this.router = router;
+        this.directory = directory;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(queryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Around("target(com.example.repository.UserRepository)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ShardContext.current() != null) {
+            return joinPoint.proceed();
+        }
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String name = signature.getName();
+        Object[] args = joinPoint.getArgs();
+
+        switch (name) {
+            case "save":
+            case "saveAndFlush":
+                return save(joinPoint, (User) args[0]);
+            case "update":
+                return proceedOn(router.shardFor(((User) args[0]).getId()), joinPoint, args);
+            case "findByEmail":
+                return findByEmail(joinPoint, (String) args[0]);
+            case "existsByEmail":
+                return directory.find((String) args[0]) != null;
+            case "deleteById":
+                return deleteById(joinPoint, (UUID) args[0]);
+            case "delete":
+                return delete(joinPoint, (User) args[0]);
+            case "findAllById":
+                return findAllById(joinPoint, (Iterable<?>) args[0]);
+            case "findSummaries":
+                return findSummaries(joinPoint, args);
+            case "saveAll":
+            case "saveAllAndFlush":
+                return saveAll(joinPoint, (Iterable<?>) args[0]);
+            case "deleteAllById":
+            case "deleteAllByIdInBatch":
+                return deleteAllById(joinPoint, (Iterable<?>) args[0]);
+            case "deleteAll":
+            case "deleteAllInBatch":
+                if (args.length > 0) {
+                    return deleteAll(joinPoint, (Iterable<?>) args[0]);
+                }
+                break;
+            default:
+                break;
+        }
+        if (args.length == 1 && args[0] instanceof UUID) {
+            return proceedOn(router.shardFor((UUID) args[0]), joinPoint, args);
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Pageable) {
+                return paged(joinPoint, signature, args, i);
+            }
+        }
+        Object result = scatterGather(joinPoint, signature, args);
+        if (name.equals("deleteAll") || name.equals("deleteAllInBatch")) {
+            directory.clear();
+        }
+        return result;
+    }
+
+    /**
+     * Fails fast on methods declared by the application's repository interfaces that {@link #route} could not merge.
+     */
+    static void validate(Class<?> repository) {
+        for (Method method : repository.getMethods()) {
+            if (!method.getDeclaringClass().getPackageName().startsWith("com.example")
+                    || method.getName().equals("findSummaries")) {
+                continue;
+            }
+            Class<?>[] parameters = method.getParameterTypes();
+            Class<?> type = method.getReturnType();
+            boolean idKeyed = parameters.length == 1 && parameters[0] == UUID.class;
+            boolean paged = Arrays.asList(parameters).contains(Pageable.class) && Slice.class.isAssignableFrom(type);
+            boolean mergeable = MERGEABLE.contains(type) || Collection.class.isAssignableFrom(type);
+            if (!idKeyed && !paged && !mergeable) {
+                throw new IllegalStateException(repository.getSimpleName() + "." + method.getName() + " returns "
+                        + type.getSimpleName() + ", which cannot be merged across shards");
+            }
+        }
+    }
+
+    private Object save(ProceedingJoinPoint joinPoint, User user) throws Throwable {
+        int shard = router.shardFor(user.getId());
+        EmailShardDirectory.Entry registered = directory.find(user.getEmail());
+        boolean registeredHere = false;
+        if (registered == null) {
+            directory.register(user.getEmail(), user.getId(), shard);
+            registeredHere = true;
+        } else if (!registered.getUserId().equals(user.getId())) {
+            throw new DataIntegrityViolationException("Email " + user.getEmail() + " is already in use");
+        }
+        try {
+            return proceedOn(shard, joinPoint, joinPoint.getArgs());
+        } catch (Throwable e) {
+            if (registeredHere) {
+                directory.remove(user.getEmail());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Registers every email up front and then saves each shard's users in one call. On failure the emails registered
+     * here are released again; shards that already committed keep their rows.
+     */
+    private Object saveAll(ProceedingJoinPoint joinPoint, Iterable<?> users) throws Throwable {
+        Map<Integer, List<User>> byShard = new LinkedHashMap<>();
+        List<String> registeredHere = new ArrayList<>();
+        try {
+            for (Object entity : users) {
+                User user = (User) entity;
+                int shard = router.shardFor(user.getId());
+                EmailShardDirectory.Entry registered = directory.find(user.getEmail());
+                if (registered == null) {
+                    directory.register(user.getEmail(), user.getId(), shard);
+                    registeredHere.add(user.getEmail());
+                } else if (!registered.getUserId().equals(user.getId())) {
+                    throw new DataIntegrityViolationException("Email " + user.getEmail() + " is already in use");
+                }
+                byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(user);
+            }
+            List<Object> saved = new ArrayList<>();
+            for (Map.Entry<Integer, List<User>> shard : byShard.entrySet()) {
+                saved.addAll((Collection<?>) proceedOn(shard.getKey(), joinPoint, new Object[]{shard.getValue()}));
+            }
+            return saved;
+        } catch (Throwable e) {
+            registeredHere.forEach(directory::remove);
+            throw e;
+        }
+    }
+
+    private Object deleteAllById(ProceedingJoinPoint joinPoint, Iterable<?> ids) throws Throwable {
+        Map<Integer, List<UUID>> byShard = new LinkedHashMap<>();
+        for (Object id : ids) {
+            byShard.computeIfAbsent(router.shardFor((UUID) id), key -> new ArrayList<>()).add((UUID) id);
+        }
+        for (Map.Entry<Integer, List<UUID>> shard : byShard.entrySet()) {
+            Integer previous = ShardContext.enter(shard.getKey());
+            try {
+                List<User> users = ((UserRepository) joinPoint.getTarget()).findAllById(shard.getValue());
+                joinPoint.proceed(new Object[]{shard.getValue()});
+                users.forEach(deleted -> directory.remove(deleted.getEmail()));
+            } finally {
+                ShardContext.exit(previous);
+            }
+        }
+        return null;
+    }
+
+    private Object deleteAll(ProceedingJoinPoint joinPoint, Iterable<?> users) throws Throwable {
+        Map<Integer, List<User>> byShard = new LinkedHashMap<>();
+        for (Object entity : users) {
+            User user = (User) entity;
+            byShard.computeIfAbsent(router.shardFor(user.getId()), key -> new ArrayList<>()).add(user);
+        }
+        for (Map.Entry<Integer, List<User>> shard : byShard.entrySet()) {
+            proceedOn(shard.getKey(), joinPoint, new Object[]{shard.getValue()});
+            shard.getValue().forEach(deleted -> directory.remove(deleted.getEmail()));
+        }
+        return null;
+    }
+
+    /**
+     * Asks every shard for its first offset + size rows and cuts the page out of the merged rows; the total of a
+     * {@link Page} is the sum of the shard totals.
+     */
+    @SuppressWarnings("unchecked")
+    private Object paged(ProceedingJoinPoint joinPoint, MethodSignature signature, Object[] args, int pageableIndex)
+            throws Throwable {
+        Pageable pageable = (Pageable) args[pageableIndex];
+        Object[] shardArgs = args.clone();
+        if (pageable.isPaged()) {
+            shardArgs[pageableIndex] = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(),
+                    pageable.getSort());
+        }
+        List<CompletableFuture<Object>> futures = new ArrayList<>(router.getShardCount());
+        for (int shard = 0; shard < router.getShardCount(); shard++) {
+            futures.add(submit(shard, joinPoint, shardArgs));
+        }
+        List<Object> merged = new ArrayList<>();
+        long total = 0;
+        boolean shardHasMore = false;
+        for (Object result : join(futures)) {
+            Slice<Object> slice = (Slice<Object>) result;
+            merged.addAll(slice.getContent());
+            shardHasMore |= slice.hasNext();
+            if (slice instanceof Page) {
+                total += ((Page<Object>) slice).getTotalElements();
+            }
+        }
+        if (pageable.getSort().isSorted()) {
+            merged.sort(propertyOrder(pageable.getSort()));
+        }
+        boolean page = Page.class.isAssignableFrom(signature.getReturnType());
+        if (pageable.isUnpaged()) {
+            return page ? new PageImpl<>(merged) : new SliceImpl<>(merged);
+        }
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), merged.size());
+        List<Object> content = new ArrayList<>(merged.subList(from, to));
+        return page ? new PageImpl<>(content, pageable, total)
+                : new SliceImpl<>(content, pageable, shardHasMore || merged.size() > to);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object> propertyOrder(Sort sort) {
+        Comparator<Object> order = (a, b) -> 0;
+        for (Sort.Order property : sort) {
+            Comparator<Object> next = (a, b) -> {
+                Object left = new BeanWrapperImpl(a).getPropertyValue(property.getProperty());
+                Object right = new BeanWrapperImpl(b).getPropertyValue(property.getProperty());
+                if (left == null || right == null) {
+                    return left == null ? (right == null ? 0 : 1) : -1;
+                }
+                if (left instanceof UUID) {
+                    return compareUnsigned((UUID) left, (UUID) right);
+                }
+                if (left instanceof String && property.isIgnoreCase()) {
+                    return ((String) left).compareToIgnoreCase((String) right);
+                }
+                return ((Comparable) left).compareTo(right);
+            };
+            order = order.thenComparing(property.isDescending() ? next.reversed() : next);
+        }
+        return order;
+    }
+
+    private Object findByEmail(ProceedingJoinPoint joinPoint, String email) throws Throwable {
+        EmailShardDirectory.Entry registered = directory.find(email);
+        return registered == null ? null : proceedOn(registered.getShard(), joinPoint, joinPoint.getArgs());
+    }
+
+    private Object deleteById(ProceedingJoinPoint joinPoint, UUID id) throws Throwable {
+        int shard = router.shardFor(id);
+        Integer previous = ShardContext.enter(shard);
+        try {
+            Optional<User> user = ((UserRepository) joinPoint.getTarget()).findById(id);
+            Object result = joinPoint.proceed();
+            user.ifPresent(deleted -> directory.remove(deleted.getEmail()));
+            return result;
+        } finally {
+            ShardContext.exit(previous);
+        }
+    }
+
+    private Object delete(ProceedingJoinPoint joinPoint, User user) throws Throwable {
+        Object result = proceedOn(router.shardFor(user.getId()), joinPoint, joinPoint.getArgs());
+        directory.remove(user.getEmail());
+        return result;
+    }
+
+    private Object findAllById(ProceedingJoinPoint joinPoint, Iterable<?> ids) throws Throwable {
+        List<List<UUID>> idsByShard = new ArrayList<>(router.getShardCount());
+        for (int i = 0; i < router.getShardCount(); i++) {
+            idsByShard.add(new ArrayList<>());
+        }
+        for (Object id : ids) {
+            idsByShard.get(router.shardFor((UUID) id)).add((UUID) id);
+        }
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int shard = 0; shard < idsByShard.size(); shard++) {
+            if (!idsByShard.get(shard).isEmpty()) {
+                futures.add(submit(shard, joinPoint, new Object[]{idsByShard.get(shard)}));
+            }
+        }
+        List<Object> merged = new ArrayList<>();
+        for (Object result : join(futures)) {
+            merged.addAll((Collection<?>) result);
+        }
+        return merged;
+    }
+
+    /**
+     * Asks every shard for its first offset + limit rows and merges them in the requested order. Ties in
+     * lastName may come out differently than a single database would order them, since collations are not replicated.
+     */
+    @SuppressWarnings("unchecked")
+    private Object findSummaries(ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        Sort sort = (Sort) args[1];
+        int offset = (Integer) args[2];
+        int limit = (Integer) args[3];
+        Object[] shardArgs = {args[0], sort, 0, offset + limit};
+        List<CompletableFuture<Object>> futures = new ArrayList<>(router.getShardCount());
+        for (int shard = 0; shard < router.getShardCount(); shard++) {
+            futures.add(submit(shard, joinPoint, shardArgs));
+        }
+        List<UserSummaryDTO> merged = new ArrayList<>();
+        for (Object result : join(futures)) {
+            merged.addAll((Collection<UserSummaryDTO>) result);
+        }
+        merged.sort(summaryOrder(sort));
+        return new ArrayList<>(merged.subList(Math.min(offset, merged.size()), Math.min(offset + limit, merged.size())));
+    }
+
+    private static Comparator<UserSummaryDTO> summaryOrder(Sort sort) {
+        Comparator<UserSummaryDTO> order = (a, b) -> 0;
+        for (Sort.Order property : sort) {
+            Comparator<UserSummaryDTO> next;
+            switch (property.getProperty()) {
+                case "birthDate":
+                    next = Comparator.comparing(UserSummaryDTO::getBirthDate);
+                    break;
+                case "lastName":
+                    next = Comparator.comparing(summary -> summary.getLastName().toLowerCase(Locale.ROOT));
+                    break;
+                case "id":
+                    next = (a, b) -> compareUnsigned(a.getId(), b.getId());
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Cannot merge shards ordered by " + property.getProperty());
+            }
+            order = order.thenComparing(property.isDescending() ? next.reversed() : next);
+        }
+        return order;
+    }
+
+    // Unsigned, as PostgreSQL compares uuids byte by byte.
+    private static int compareUnsigned(UUID a, UUID b) {
+        int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private Object scatterGather(ProceedingJoinPoint joinPoint, MethodSignature signature, Object[] args) throws Throwable {
+        List<CompletableFuture<Object>> futures = new ArrayList<>(router.getShardCount());
+        for (int shard = 0; shard < router.getShardCount(); shard++) {
+            futures.add(submit(shard, joinPoint, args));
+        }
+        return merge(signature, join(futures));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object merge(MethodSignature signature, List<Object> results) {
+        Class<?> type = signature.getReturnType();
+        if (type == void.class) {
+            return null;
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            List<Object> merged = new ArrayList<>();
+            for (Object result : results) {
+                merged.addAll((Collection<?>) result);
+            }
+            Comparator<User> order = MERGE_ORDER.get(signature.getName());
+            if (order != null) {
+                ((List<User>) (List<?>) merged).sort(order);
+            }
+            return merged;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return results.stream().anyMatch(Boolean.TRUE::equals);
+        }
+        if (type == long.class || type == Long.class) {
+            return results.stream().mapToLong(result -> ((Number) result).longValue()).sum();
+        }
+        if (type == int.class || type == Integer.class) {
+            return results.stream().mapToInt(result -> ((Number) result).intValue()).sum();
+        }
+        if (type == Optional.class) {
+            return results.stream().map(result -> (Optional<?>) result)
+                    .filter(Optional::isPresent).findFirst().orElse(Optional.empty());
+        }
+        if (type == User.class) {
+            return results.stream().filter(result -> result != null).findFirst().orElse(null);
+        }
+        throw new UnsupportedOperationException(signature.getName() + " cannot be merged across shards");
+    }
+
+    private CompletableFuture<Object> submit(int shard, ProceedingJoinPoint joinPoint, Object[] args) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return proceedOn(shard, joinPoint, args);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private static List<Object> join(List<CompletableFuture<Object>> futures) throws Throwable {
+        List<Object> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<Object> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+        return results;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static Object proceedOn(int shard, ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        Integer previous = ShardContext.enter(shard);
+        try {
+            return joinPoint.proceed(args);
+        } finally {
+            ShardContext.exit(previous);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.similarity;
+
+import com.example.model.User;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Computes MinHash signatures over character trigrams of a user's normalized first name, last name, email local
+ * part and phone number. Every signature slot keeps only the low 16 bits of its minimum, which is enough to
+ * estimate similarity and halves the memory of the index.
+ */
+final class MinHasher {
+
+    private static final long FIRST_NAME = 1;
+    private static final long LAST_NAME = 2;
+    private static final long EMAIL = 3;
+    private static final long PHONE = 4;
+    // Trailing digits compared, so that numbers with and without a country code match.
+    private static final int PHONE_DIGITS = 9;
+
+    private final long[] seeds;
+
+    MinHasher(int hashes) {
+        SplittableRandom random = new SplittableRandom(0x5eed_cafe_f00dL);
+        seeds = new long[hashes];
+        for (int i = 0; i < hashes; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    int getHashes() {
+        return seeds.length;
+    }
+
+    /**
+     * Writes the signature of the user into {@code target} at {@code offset}; returns false when the user has no
+     * field to compare on.
+     */
+    boolean signature(User user, short[] target, int offset) {
+        long[] minimums = new long[seeds.length];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        int shingles = 0;
+        shingles += shingle(FIRST_NAME, name(user.getFirstName()), minimums);
+        shingles += shingle(LAST_NAME, name(user.getLastName()), minimums);
+        shingles += shingle(EMAIL, emailLocalPart(user.getEmail()), minimums);
+        shingles += shingle(PHONE, phone(user.getPhoneNumber()), minimums);
+        if (shingles == 0) {
+            return false;
+        }
+        for (int i = 0; i < seeds.length; i++) {
+            target[offset + i] = (short) minimums[i];
+        }
+        return true;
+    }
+
+    private int shingle(long field, String value, long[] minimums) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        String padded = "^" + value + "$";
+        int count = 0;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            long hash = field;
+            for (int j = i; j < i + 3; j++) {
+                hash = hash * 0x100000001b3L + padded.charAt(j);
+            }
+            for (int k = 0; k < seeds.length; k++) {
+                long value64 = mix(hash ^ seeds[k]);
+                if (Long.compareUnsigned(value64, minimums[k]) < 0) {
+                    minimums[k] = value64;
+                }
+            }
+            count++;
+        }
+        return count;
+    }
+
+    static String name(String name) {
+        if (name == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetter(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Lower-cased local part without a {@code +tag} and without dots, which most mail providers ignore.
+     */
+    static String emailLocalPart(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        String local = (at >= 0 ? email.substring(0, at) : email).toLowerCase(Locale.ROOT);
+        int tag = local.indexOf('+');
+        if (tag >= 0) {
+            local = local.substring(0, tag);
+        }
+        StringBuilder normalized = new StringBuilder(local.length());
+        for (int i = 0; i < local.length(); i++) {
+            char c = local.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    static String phone(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.length() > PHONE_DIGITS ? digits.substring(digits.length() - PHONE_DIGITS) : digits.toString();
+    }
+
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,476 @@
+package com.example.similarity;
+
+import com.example.event.UserChangeEvent;
+import com.example.metrics.MetricsSource;
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Locality-sensitive hash index of user MinHash signatures for finding likely duplicate accounts. Each signature is
+ * split into bands; users sharing any band land in the same bucket and become candidates, which are then scored by
+ * the fraction of equal signature slots. Everything lives in flat arrays: with the default 12 bands of 3 rows an
+ * entry takes about 300 bytes, and the index stops growing at {@code similar-users.max-users} live users. Entries
+ * of changed users are marked dead and reclaimed by compacting the arrays once they make up a quarter of them, or
+ * when the index is full; updates that leave the hashed fields alone are not re-indexed. Callers should still
+ * re-check matches against the current rows.
+ */
+@Component
+@Log4j2
+public class SimilarUserIndex implements MetricsSource {
+
+    private static final int LOAD_WINDOW = 10000;
+
+    @Value("${similar-users.enabled}")
+    private boolean enabled;
+    @Value("${similar-users.bands}")
+    private int bands;
+    @Value("${similar-users.rows}")
+    private int rows;
+    @Value("${similar-users.threshold}")
+    private double threshold;
+    @Value("${similar-users.max-users}")
+    private int maxUsers;
+    @Value("${similar-users.max-candidates}")
+    private int maxCandidates;
+
+    private final UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private MinHasher hasher;
+    private int entries;
+    private int liveEntries;
+    private long[] idMsb;
+    private long[] idLsb;
+    private short[] signatures;
+    private final BitSet dead = new BitSet();
+    // Ids changed while the initial load runs; the loader skips them, as the change events indexed their state.
+    private Set<UUID> changedDuringLoad;
+    // Bucket chains: element entry * bands + band links to the next element of its bucket, plus one; 0 ends it.
+    private int[] next;
+    private int[] bucketKeys;
+    private int[] bucketHeads;
+    private int buckets;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder candidates = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    public SimilarUserIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        hasher = new MinHasher(bands * rows);
+        allocate(1024);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::loadAll, "similar-users-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void loadAll() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            NavigableMap<LocalDate, Long> countsByBirthDate = new TreeMap<>();
+            for (Object[] row : userRepository.countByRoleAndBirthDate()) {
+                countsByBirthDate.merge((LocalDate) row[1], ((Number) row[2]).longValue(), Long::sum);
+            }
+            LocalDate windowStart = null;
+            long windowCount = 0;
+            for (Map.Entry<LocalDate, Long> entry : countsByBirthDate.entrySet()) {
+                if (windowStart == null) {
+                    windowStart = entry.getKey();
+                }
+                windowCount += entry.getValue();
+                if (windowCount >= LOAD_WINDOW || entry.getKey().equals(countsByBirthDate.lastKey())) {
+                    userRepository.findByBirthDateBetween(windowStart, entry.getKey()).forEach(this::addLoaded);
+                    windowStart = null;
+                    windowCount = 0;
+                }
+            }
+            log.info("Indexed {} users for similarity lookups in {} ms", size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Could not load the similar user index", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(event.getUserId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (event.getBefore() != null && event.getAfter() != null && sameSignature(event.getBefore(), event.getAfter())) {
+            return;
+        }
+        if (event.getBefore() != null) {
+            remove(event.getBefore());
+        }
+        if (event.getAfter() != null) {
+            add(event.getAfter());
+        }
+    }
+
+    public void add(User user) {
+        short[] signature = new short[hasher.getHashes()];
+        if (user.getId() == null || !hasher.signature(user, signature, 0)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            insert(user.getId(), signature);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLoaded(User user) {
+        short[] signature = new short[hasher.getHashes()];
+        if (user.getId() == null || !hasher.signature(user, signature, 0)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // The row may have been read before a change that has been indexed since.
+            if (!changedDuringLoad.contains(user.getId())) {
+                insert(user.getId(), signature);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(UUID id, short[] signature) {
+        if (liveEntries >= maxUsers) {
+            rejected.increment();
+            return;
+        }
+        if (entries == idMsb.length || entries == maxUsers) {
+            int deadEntries = entries - liveEntries;
+            if (deadEntries > 0 && (deadEntries * 4 >= entries || entries == maxUsers)) {
+                compact();
+            } else {
+                allocate(idMsb.length * 2);
+            }
+        }
+        int entry = entries++;
+        liveEntries++;
+        idMsb[entry] = id.getMostSignificantBits();
+        idLsb[entry] = id.getLeastSignificantBits();
+        System.arraycopy(signature, 0, signatures, entry * signature.length, signature.length);
+        link(entry);
+    }
+
+    private void link(int entry) {
+        int offset = entry * hasher.getHashes();
+        for (int band = 0; band < bands; band++) {
+            int slot = bucket(bandKey(signatures, offset, band), true);
+            int element = entry * bands + band;
+            next[element] = bucketHeads[slot];
+            bucketHeads[slot] = element + 1;
+        }
+    }
+
+    /**
+     * Moves the live entries down over the dead ones and rebuilds the buckets from the stored signatures.
+     */
+    private void compact() {
+        int hashes = hasher.getHashes();
+        int live = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            if (dead.get(entry)) {
+                continue;
+            }
+            if (live != entry) {
+                idMsb[live] = idMsb[entry];
+                idLsb[live] = idLsb[entry];
+                System.arraycopy(signatures, entry * hashes, signatures, live * hashes, hashes);
+            }
+            live++;
+        }
+        entries = live;
+        dead.clear();
+        Arrays.fill(bucketHeads, 0);
+        buckets = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            link(entry);
+        }
+        compactions.increment();
+    }
+
+    private boolean sameSignature(User a, User b) {
+        int hashes = hasher.getHashes();
+        short[] both = new short[hashes * 2];
+        boolean hashedA = hasher.signature(a, both, 0);
+        boolean hashedB = hasher.signature(b, both, hashes);
+        return hashedA == hashedB && Arrays.equals(both, 0, hashes, both, hashes, hashes * 2);
+    }
+
+    /**
+     * Marks the entry indexed for this state of the user dead; a no-op when there is none.
+     */
+    public void remove(User user) {
+        short[] signature = new short[hasher.getHashes()];
+        if (user.getId() == null || !hasher.signature(user, signature, 0)) {
+            return;
+        }
+        long msb = user.getId().getMostSignificantBits();
+        long lsb = user.getId().getLeastSignificantBits();
+        lock.writeLock().lock();
+        try {
+            int slot = bucket(bandKey(signature, 0, 0), false);
+            for (int element = slot >= 0 ? bucketHeads[slot] - 1 : -1; element >= 0; element = next[element] - 1) {
+                int entry = element / bands;
+                if (idMsb[entry] == msb && idLsb[entry] == lsb && !dead.get(entry)) {
+                    dead.set(entry);
+                    liveEntries--;
+                    return;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Users whose estimated similarity to the probe is at least {@code minSimilarity}, most similar first. The probe
+     * itself is left out when it has an id.
+     */
+    public List<Match> findSimilar(User probe, int limit, double minSimilarity) {
+        lookups.increment();
+        int hashes = hasher.getHashes();
+        short[] signature = new short[hashes];
+        if (!hasher.signature(probe, signature, 0)) {
+            return List.of();
+        }
+        Map<UUID, Match> matches = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            Set<Integer> seen = new HashSet<>();
+            for (int band = 0; band < bands && seen.size() < maxCandidates; band++) {
+                int slot = bucket(bandKey(signature, 0, band), false);
+                if (slot < 0) {
+                    continue;
+                }
+                for (int element = bucketHeads[slot] - 1; element >= 0 && seen.size() < maxCandidates;
+                     element = next[element] - 1) {
+                    int entry = element / bands;
+                    if (dead.get(entry) || !seen.add(entry)) {
+                        continue;
+                    }
+                    UUID id = new UUID(idMsb[entry], idLsb[entry]);
+                    if (id.equals(probe.getId())) {
+                        continue;
+                    }
+                    double similarity = agreement(signature, signatures, entry * hashes, hashes);
+                    if (similarity >= minSimilarity) {
+                        matches.merge(id, new Match(id, similarity),
+                                (a, b) -> a.getSimilarity() >= b.getSimilarity() ? a : b);
+                    }
+                }
+            }
+            candidates.add(seen.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Match> result = new ArrayList<>(matches.values());
+        result.sort(Comparator.comparingDouble(Match::getSimilarity).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Estimated similarity of two users, on the same scale as {@link #findSimilar}.
+     */
+    public double similarity(User a, User b) {
+        int hashes = hasher.getHashes();
+        short[] both = new short[hashes * 2];
+        if (!hasher.signature(a, both, 0) || !hasher.signature(b, both, hashes)) {
+            return 0;
+        }
+        return agreement(both, both, hashes, hashes);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveEntries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double agreement(short[] probe, short[] stored, int offset, int hashes) {
+        int equal = 0;
+        for (int i = 0; i < hashes; i++) {
+            if (probe[i] == stored[offset + i]) {
+                equal++;
+            }
+        }
+        return (double) equal / hashes;
+    }
+
+    private int bandKey(short[] signature, int offset, int band) {
+        long key = band;
+        for (int row = 0; row < rows; row++) {
+            key = (key << 16) ^ (signature[offset + band * rows + row] & 0xffff) ^ (key >>> 48);
+        }
+        return (int) MinHasher.mix(key * 0x9e3779b97f4a7c15L + band);
+    }
+
+    /**
+     * Slot of the bucket for the key, creating it when asked to; -1 when it does not exist.
+     */
+    private int bucket(int key, boolean create) {
+        if (create && (buckets + 1) * 4 > bucketKeys.length * 3) {
+            rehash(bucketKeys.length * 2);
+        }
+        int mask = bucketKeys.length - 1;
+        for (int slot = key & mask; ; slot = (slot + 1) & mask) {
+            if (bucketHeads[slot] == 0) {
+                if (!create) {
+                    return -1;
+                }
+                bucketKeys[slot] = key;
+                buckets++;
+                return slot;
+            }
+            if (bucketKeys[slot] == key) {
+                return slot;
+            }
+        }
+    }
+
+    private void rehash(int slots) {
+        int[] oldKeys = bucketKeys;
+        int[] oldHeads = bucketHeads;
+        bucketKeys = new int[slots];
+        bucketHeads = new int[slots];
+        int mask = slots - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] != 0) {
+                int slot = oldKeys[i] & mask;
+                while (bucketHeads[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                bucketKeys[slot] = oldKeys[i];
+                bucketHeads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        int hashes = hasher.getHashes();
+        idMsb = idMsb == null ? new long[capacity] : Arrays.copyOf(idMsb, capacity);
+        idLsb = idLsb == null ? new long[capacity] : Arrays.copyOf(idLsb, capacity);
+        signatures = signatures == null ? new short[capacity * hashes] : Arrays.copyOf(signatures, capacity * hashes);
+        next = next == null ? new int[capacity * bands] : Arrays.copyOf(next, capacity * bands);
+        if (bucketKeys == null) {
+            bucketKeys = new int[Integer.highestOneBit(capacity * bands) * 2];
+            bucketHeads = new int[bucketKeys.length];
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "similarUsers";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            metrics.put("enabled", enabled);
+            metrics.put("users", liveEntries);
+            metrics.put("deadEntries", entries - liveEntries);
+            metrics.put("buckets", buckets);
+            metrics.put("bytes", (long) idMsb.length * (16 + 2L * hasher.getHashes() + 4L * bands)
+                    + bucketKeys.length * 8L + dead.size() / 8);
+        } finally {
+            lock.readLock().unlock();
+        }
+        metrics.put("lookups", lookups.sum());
+        metrics.put("averageCandidates", lookups.sum() == 0 ? 0 : (double) candidates.sum() / lookups.sum());
+        metrics.put("rejectedFull", rejected.sum());
+        metrics.put("compactions", compactions.sum());
+        return metrics;
+    }
+
+    public static final class Match {
+
+        private final UUID id;
+        private final double similarity;
+
+        public Match(UUID id, double similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.stream;
+
+import com.example.dto.UserChangeMessageDTO;
+import com.example.dto.UserSummaryDTO;
+import com.example.event.UserChangeEvent;
+import com.example.metrics.MetricsSource;
+import com.example.model.User;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes user changes to Server-Sent Events subscribers. Changes go into a bounded replay buffer; every batch window,
+ * each subscriber that is behind gets everything it has not seen yet as one {@value #CHANGES_EVENT} event, sent from
+ * a small pool so that request threads never write to the streams. A subscriber whose previous send is still
+ * blocked when it falls {@code max-lag} changes behind is dropped; it can reconnect with {@code Last-Event-ID} and
+ * resume from the buffer, or receive a {@value #RESET_EVENT} event when its position is no longer there.
+ */
+@Component
+@Log4j2
+public class UserChangeStream implements MetricsSource, DisposableBean {
+
+    static final String CHANGES_EVENT = "user-changes";
+    static final String RESET_EVENT = "reset";
+
+    @Value("${user-stream.replay-size}")
+    private int replaySize;
+    @Value("${user-stream.batch-window}")
+    private long batchWindow;
+    @Value("${user-stream.max-lag}")
+    private int maxLag;
+    @Value("${user-stream.timeout}")
+    private long timeout;
+    @Value("${user-stream.heartbeat-interval}")
+    private long heartbeatInterval;
+
+    // Event ids carry the instance's start time, so that ids from before a restart are never taken as positions.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+
+    private UserChangeMessageDTO[] replay;
+    private long lastSequence;
+    private ScheduledThreadPoolExecutor scheduler;
+    private ExecutorService senders;
+
+    @PostConstruct
+    public void init() {
+        replay = new UserChangeMessageDTO[replaySize];
+        AtomicInteger threadNumber = new AtomicInteger();
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> daemon(runnable, "user-stream-flush"));
+        senders = Executors.newFixedThreadPool(2,
+                runnable -> daemon(runnable, "user-stream-send-" + threadNumber.incrementAndGet()));
+        scheduler.scheduleWithFixedDelay(this::flush, batchWindow, batchWindow, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        User user = event.getAfter() != null ? event.getAfter() : event.getBefore();
+        UserSummaryDTO summary = new UserSummaryDTO(user.getId(), user.getEmail(), user.getFirstName(),
+                user.getLastName(), user.getBirthDate(), user.getRole());
+        synchronized (this) {
+            lastSequence++;
+            replay[(int) ((lastSequence - 1) % replay.length)] = new UserChangeMessageDTO(lastSequence, event.getType(), summary);
+        }
+        published.increment();
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(timeout));
+    }
+
+    SseEmitter subscribe(String lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        boolean reset;
+        synchronized (this) {
+            long resumeFrom = position(lastEventId);
+            reset = lastEventId != null && (resumeFrom < 0 || resumeFrom > lastSequence || resumeFrom < oldestSequence() - 1);
+            subscriber.cursor = lastEventId == null || reset ? lastSequence : resumeFrom;
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        if (reset) {
+            // The changes since the client's last event are gone; it has to reload the users it shows.
+            resets.increment();
+            try {
+                emitter.send(SseEmitter.event().id(eventId(subscriber.cursor)).name(RESET_EVENT).data(""));
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                return emitter;
+            }
+        }
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    void flush() {
+        long head;
+        synchronized (this) {
+            head = lastSequence;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.cursor >= head) {
+                continue;
+            }
+            if (subscriber.sending.compareAndSet(false, true)) {
+                senders.execute(() -> drain(subscriber));
+            } else if (head - subscriber.cursor > maxLag) {
+                drop(subscriber);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            List<UserChangeMessageDTO> batch;
+            synchronized (this) {
+                if (subscriber.cursor < oldestSequence() - 1) {
+                    drop(subscriber);
+                    return;
+                }
+                batch = new ArrayList<>((int) (lastSequence - subscriber.cursor));
+                for (long sequence = subscriber.cursor + 1; sequence <= lastSequence; sequence++) {
+                    batch.add(replay[(int) ((sequence - 1) % replay.length)]);
+                }
+            }
+            long last = batch.get(batch.size() - 1).getSequence();
+            subscriber.emitter.send(SseEmitter.event().id(eventId(last)).name(CHANGES_EVENT)
+                    .data(batch, MediaType.APPLICATION_JSON));
+            subscriber.cursor = last;
+            batches.increment();
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the container reports it through the emitter's error callback as well.
+            subscribers.remove(subscriber);
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.sending.compareAndSet(false, true)) {
+                senders.execute(() -> {
+                    try {
+                        subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } catch (IOException | IllegalStateException e) {
+                        subscribers.remove(subscriber);
+                    } finally {
+                        subscriber.sending.set(false);
+                    }
+                });
+            }
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            dropped.increment();
+            log.debug("Dropped a user stream subscriber at {} of {}", subscriber.cursor, lastSequence);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private long oldestSequence() {
+        return Math.max(1, lastSequence - replay.length + 1);
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private long position(String eventId) {
+        if (eventId == null || !eventId.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "userStream";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("subscribers", subscribers.size());
+        synchronized (this) {
+            metrics.put("lastSequence", lastSequence);
+        }
+        metrics.put("published", published.sum());
+        metrics.put("batches", batches.sum());
+        metrics.put("droppedSubscribers", dropped.sum());
+        metrics.put("resets", resets.sum());
+        return metrics;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long cursor;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
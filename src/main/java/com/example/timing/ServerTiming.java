@@ -0,0 +1,104 @@
+package com.example.timing;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-request timing collector, bound to the request thread by the {@code ServerTimingFilter}. All static methods
+ * are no-ops when no request is being timed, so instrumented code can call them unconditionally. Metrics may
+ * overlap: the database time spent inside validation also counts towards {@link #DB}.
+ */
+public final class ServerTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    public static final String JWT = "jwt";
+    public static final String AUTH = "auth";
+    public static final String VALIDATION = "validation";
+    public static final String DB = "db";
+    public static final String SERIALIZATION = "serialization";
+    public static final String TOTAL = "total";
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> durations = new LinkedHashMap<>();
+    private int queries;
+    private long serializationStartNanos;
+
+    private ServerTiming() {
+    }
+
+    public static ServerTiming begin() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    public static void stop(String metric, long startNanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.durations.merge(metric, System.nanoTime() - startNanos, Long::sum);
+        }
+    }
+
+    public static <T> T time(String metric, Supplier<T> action) {
+        long start = start();
+        try {
+            return action.get();
+        } finally {
+            stop(metric, start);
+        }
+    }
+
+    public static void countQuery() {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.queries++;
+        }
+    }
+
+    public static void serializationStarted() {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null && timing.serializationStartNanos == 0) {
+            timing.serializationStartNanos = System.nanoTime();
+        }
+    }
+
+    public int getQueries() {
+        return queries;
+    }
+
+    public String toHeaderValue() {
+        long now = System.nanoTime();
+        StringBuilder header = new StringBuilder();
+        durations.forEach((metric, nanos) -> {
+            append(header, metric, nanos);
+            if (DB.equals(metric)) {
+                header.append(";desc=\"").append(queries).append(queries == 1 ? " query\"" : " queries\"");
+            }
+        });
+        if (serializationStartNanos != 0) {
+            append(header, SERIALIZATION, now - serializationStartNanos);
+        }
+        append(header, TOTAL, now - startNanos);
+        return header.toString();
+    }
+
+    private static void append(StringBuilder header, String metric, long nanos) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        header.append(metric).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.timing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Times repository calls as {@link ServerTiming#DB} and validator calls as {@link ServerTiming#VALIDATION}. Runs
+ * outermost so that time spent waiting on coalesced or sharded lookups is included.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingAspect {
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(ServerTiming.DB, joinPoint);
+    }
+
+    @Around("execution(public * com.example.validator.UserValidator.*(..))")
+    public Object timeValidation(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(ServerTiming.VALIDATION, joinPoint);
+    }
+
+    private Object timed(String metric, ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = ServerTiming.start();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ServerTiming.stop(metric, start);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates UUIDv7-style identifiers: a 48-bit Unix millisecond timestamp followed by a 12-bit counter and 62
+ * random bits. Each thread keeps its own timestamp and counter, so ids are monotonic per thread without any
+ * shared state, and ids from different threads still sort by millisecond.
+ */
+public final class TimeOrderedUuidGenerator {
+
+    private static final long VERSION = 0x7L << 12;
+    private static final long VARIANT = 0x2L << 62;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+    private static final int MAX_COUNTER = 0xFFF;
+    // The counter starts in the lower half of its range so that every millisecond has room to increment.
+    private static final int COUNTER_SEED_BOUND = 0x800;
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private TimeOrderedUuidGenerator() {
+    }
+
+    public static UUID next() {
+        return STATE.get().next();
+    }
+
+    private static final class State {
+        private long lastMillis = -1;
+        private int counter;
+
+        private UUID next() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                counter = random.nextInt(COUNTER_SEED_BOUND);
+            } else if (counter < MAX_COUNTER) {
+                // Same millisecond, or the clock went backwards: keep the last timestamp and count up.
+                counter++;
+            } else {
+                lastMillis++;
+                counter = random.nextInt(COUNTER_SEED_BOUND);
+            }
+            long mostSignificantBits = (lastMillis << 16) | VERSION | counter;
+            long leastSignificantBits = VARIANT | (random.nextLong() & RANDOM_MASK);
+            return new UUID(mostSignificantBits, leastSignificantBits);
+        }
+    }
+}
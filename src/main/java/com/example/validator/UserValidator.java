@@ -1,6 +1,5 @@
 package com.example.validator;
 
-import com.example.exception.BadRequestException;
 import com.example.exception.ResourceNotFoundException;
 import com.example.model.User;
 import com.example.repository.UserRepository;
@@ -31,42 +30,42 @@ public class UserValidator {
         this.repository = repository;
     }
 
-    private void validateFirstName(StringBuilder exceptions, String firstName) {
+    private void validateFirstName(ValidationResult result, String firstName) {
         if (firstName.length() < MIN_NAME_LENGTH || firstName.length() > MAX_NAME_LENGTH) {
-            exceptions.append("The firstname field must be between " + MIN_NAME_LENGTH + " and " + MAX_NAME_LENGTH + " characters long.\n");
+            result.addError(ValidationError.FIRST_NAME_LENGTH);
         }
     }
 
-    private void validateLastName(StringBuilder exceptions, String lastName) {
+    private void validateLastName(ValidationResult result, String lastName) {
         if (lastName.length() < MIN_NAME_LENGTH || lastName.length() > MAX_NAME_LENGTH) {
-            exceptions.append("The lastname field must be between " + MIN_NAME_LENGTH + " and " + MAX_NAME_LENGTH + " characters long.\n");
+            result.addError(ValidationError.LAST_NAME_LENGTH);
         }
     }
 
-    private void validateEmail(StringBuilder exceptions, String email) {
+    private void validateEmail(ValidationResult result, String email) {
         if (repository.existsByEmail(email)) {
-            exceptions.append("Email is already in use!\n");
+            result.addError(ValidationError.EMAIL_IN_USE);
         } else if (!isValidEmail(email)) {
-            exceptions.append("The email field should look like email. For example: bekberov@gmail.com\n");
+            result.addError(ValidationError.EMAIL_INVALID);
         }
     }
 
-    private void validatePassword(StringBuilder exceptions, String password) {
+    private void validatePassword(ValidationResult result, String password) {
         if (password.length() < MIN_PASSWORD_LENGTH || password.length() > MAX_PASSWORD_LENGTH) {
-            exceptions.append("The password field must be between " + MIN_PASSWORD_LENGTH + " and " + MAX_PASSWORD_LENGTH + " characters long.\n");
+            result.addError(ValidationError.PASSWORD_LENGTH);
         }
     }
 
 
 
-    private void validateBirthDate(StringBuilder exceptions, LocalDate birthDate) {
+    private void validateBirthDate(ValidationResult result, LocalDate birthDate) {
         LocalDate currentDate = LocalDate.now();
         if (currentDate.isBefore(birthDate)) {
-            exceptions.append("Birthdate cannot be in the future.\n");
+            result.addError(ValidationError.BIRTH_DATE_IN_FUTURE);
         } else {
             int age = Period.between(birthDate, currentDate).getYears();
             if (age < userAgeLimit) {
-                exceptions.append("User must be older than " + userAgeLimit + " years.\n");
+                result.addError(ValidationError.AGE_BELOW_LIMIT);
             }
         }
     }
@@ -76,35 +75,33 @@ public class UserValidator {
         return matcher.find();
     }
 
-    public void throwException(StringBuilder exceptions) {
-        if (exceptions.length() != 0) {
-            throw new BadRequestException(exceptions.toString());
-        }
-    }
-
-    public void validateSaveEntity(User entity) {
-        StringBuilder exceptions = new StringBuilder();
-        validateFirstName(exceptions, entity.getFirstName());
-        validateLastName(exceptions, entity.getLastName());
-        validateEmail(exceptions, entity.getEmail());
-        validatePassword(exceptions, entity.getPassword());
-        validateBirthDate(exceptions, entity.getBirthDate());
-        throwException(exceptions);
+    public ValidationResult validateSaveEntity(User entity) {
+        ValidationResult result = new ValidationResult();
+        validateFirstName(result, entity.getFirstName());
+        validateLastName(result, entity.getLastName());
+        validateEmail(result, entity.getEmail());
+        validatePassword(result, entity.getPassword());
+        validateBirthDate(result, entity.getBirthDate());
+        return result;
     }
 
-    public void validateUpdateEntity(User entity) {
-        StringBuilder exceptions = new StringBuilder();
+    public ValidationResult validateUpdateEntity(User entity) {
         var oldUser = repository.findById(entity.getId());
         if (oldUser.isEmpty()) {
             throw new ResourceNotFoundException("Cannot update non-existent user!");
         }
-        if (!oldUser.get().getEmail().equals(entity.getEmail())) {
-            exceptions.append("The email field cannot be updated!");
+        return validateUpdateEntity(entity, oldUser.get());
+    }
+
+    public ValidationResult validateUpdateEntity(User entity, User existing) {
+        ValidationResult result = new ValidationResult();
+        if (!existing.getEmail().equals(entity.getEmail())) {
+            result.addError(ValidationError.EMAIL_IMMUTABLE);
         }
-        validateFirstName(exceptions, entity.getFirstName());
-        validateLastName(exceptions, entity.getLastName());
-        validatePassword(exceptions, entity.getPassword());
-        validateBirthDate(exceptions, entity.getBirthDate());
-        throwException(exceptions);
+        validateFirstName(result, entity.getFirstName());
+        validateLastName(result, entity.getLastName());
+        validatePassword(result, entity.getPassword());
+        validateBirthDate(result, entity.getBirthDate());
+        return result;
     }
 }
@@ -0,0 +1,23 @@
+package com.example.validator;
+
+public enum ValidationError {
+    FIRST_NAME_LENGTH("firstName"),
+    LAST_NAME_LENGTH("lastName"),
+    EMAIL_IN_USE("email"),
+    EMAIL_INVALID("email"),
+    EMAIL_IMMUTABLE("email"),
+    PASSWORD_LENGTH("password"),
+    BIRTH_DATE_IN_FUTURE("birthDate"),
+    AGE_BELOW_LIMIT("birthDate"),
+    POSSIBLE_DUPLICATE("user");
+
+    private final String field;
+
+    ValidationError(String field) {
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
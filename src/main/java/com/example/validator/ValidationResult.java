@@ -0,0 +1,37 @@
+package com.example.validator;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+public class ValidationResult {
+
+    // Allocated lazily so that the common, valid path does not pay for an empty set.
+    private Set<ValidationError> errors;
+
+    public static ValidationResult of(ValidationError error) {
+        ValidationResult result = new ValidationResult();
+        result.addError(error);
+        return result;
+    }
+
+    public void addError(ValidationError error) {
+        if (errors == null) {
+            errors = EnumSet.noneOf(ValidationError.class);
+        }
+        errors.add(error);
+    }
+
+    public boolean isValid() {
+        return errors == null;
+    }
+
+    public Set<ValidationError> getErrors() {
+        return errors == null ? Collections.emptySet() : Collections.unmodifiableSet(errors);
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationResult" + getErrors();
+    }
+}
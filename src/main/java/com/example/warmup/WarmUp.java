@@ -0,0 +1,152 @@
+package com.example.warmup;
+
+import com.example.dto.UserSummaryDTO;
+import com.example.metrics.MetricsSource;
+import com.example.model.Role;
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import com.example.repository.UserSpecifications;
+import com.example.security.JwtTokenProvider;
+import com.example.service.UserService;
+import com.example.validator.UserValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the hot request paths in a loop after startup, so that the JIT, Hibernate's query plans and the connection
+ * pool are warm before traffic arrives, then fills the configured caches. Readiness stays down until it has
+ * finished; a failing step ends the warm-up early but never keeps the instance out of rotation.
+ */
+@Component
+@Log4j2
+@EnableConfigurationProperties(WarmUpProperties.class)
+public class WarmUp implements MetricsSource {
+
+    private static final String SAMPLE_EMAIL = "warm-up@example.invalid";
+    private static final String SAMPLE_PASSWORD = "warm-up-password";
+
+    private final WarmUpProperties properties;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserValidator userValidator;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final PasswordEncoder passwordEncoder;
+
+    private volatile boolean ready;
+    private volatile long iterations;
+    private volatile long elapsedMillis;
+
+    public WarmUp(WarmUpProperties properties, JwtTokenProvider jwtTokenProvider, UserValidator userValidator,
+                  ObjectMapper objectMapper, UserRepository userRepository, UserService userService,
+                  PasswordEncoder passwordEncoder) {
+        this.properties = properties;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userValidator = userValidator;
+        this.objectMapper = objectMapper;
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            ready = true;
+            return;
+        }
+        Thread warmUp = new Thread(this::run, "warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    void run() {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(properties.getDuration());
+        try {
+            for (int i = 0; i < properties.getPasswordHashes(); i++) {
+                passwordEncoder.matches(SAMPLE_PASSWORD, passwordEncoder.encode(SAMPLE_PASSWORD));
+            }
+            User sample = sampleUser();
+            List<User> samples = List.of(sample);
+            List<UserSummaryDTO> summaries = List.of(new UserSummaryDTO(sample.getId(), sample.getEmail(),
+                    sample.getFirstName(), sample.getLastName(), sample.getBirthDate(), sample.getRole()));
+            while (iterations < properties.getIterations() && System.nanoTime() < deadline) {
+                iterate(sample, samples, summaries);
+                iterations++;
+            }
+            for (String range : properties.getSearchRanges()) {
+                String[] bounds = range.split("/");
+                userService.findUsersByBirthDateRange(LocalDate.parse(bounds[0].trim()), LocalDate.parse(bounds[1].trim()));
+            }
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.warn("Warm-up stopped early after {} iterations", iterations, e);
+        } finally {
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            ready = true;
+            log.info("Warm-up finished after {} iterations in {} ms", iterations, elapsedMillis);
+        }
+    }
+
+    private void iterate(User sample, List<User> samples, List<UserSummaryDTO> summaries) throws JsonProcessingException {
+        String token = jwtTokenProvider.createToken(SAMPLE_EMAIL, Role.GUEST.name());
+        jwtTokenProvider.validateToken(token);
+        jwtTokenProvider.getUsername(token);
+
+        userValidator.validateSaveEntity(sample);
+
+        objectMapper.writeValueAsBytes(samples);
+        objectMapper.writeValueAsBytes(summaries);
+
+        // Read-only lookups for ids and emails that do not exist.
+        userRepository.findById(sample.getId());
+        userRepository.findByEmail(SAMPLE_EMAIL);
+        userRepository.findByBirthDateBetween(sample.getBirthDate(), sample.getBirthDate());
+        userRepository.findSummaries(UserSpecifications.hasEmailDomain("example.invalid"),
+                Sort.by("birthDate", "id"), 0, 1);
+    }
+
+    private static User sampleUser() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setFirstName("Warm");
+        user.setLastName("Up");
+        user.setEmail(SAMPLE_EMAIL);
+        user.setPassword(SAMPLE_PASSWORD);
+        user.setBirthDate(LocalDate.of(1900, 1, 1));
+        user.setRole(Role.GUEST);
+        return user;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "warmUp";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("ready", ready);
+        metrics.put("iterations", iterations);
+        metrics.put("elapsedMillis", elapsedMillis);
+        return metrics;
+    }
+}
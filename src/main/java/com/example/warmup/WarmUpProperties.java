@@ -0,0 +1,31 @@
+package com.example.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "warm-up")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on the warm-up loop in milliseconds; it also stops after {@link #iterations} rounds.
+     */
+    private long duration = 15000;
+
+    private int iterations = 5000;
+
+    /**
+     * BCrypt hashes to compute; each one costs as much as a login, so a handful is enough.
+     */
+    private int passwordHashes = 2;
+
+    /**
+     * Birth date searches to run once the loop is done so that their results are cached, as "from/to" ISO dates.
+     */
+    private List<String> searchRanges = new ArrayList<>();
+}
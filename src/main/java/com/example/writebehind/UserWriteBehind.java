@@ -0,0 +1,252 @@
+package com.example.writebehind;
+
+import com.example.event.UsersFlushedEvent;
+import com.example.metrics.MetricsSource;
+import com.example.model.User;
+import com.example.sharding.ShardRouter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Opt-in write-behind for user updates. An update is acknowledged once it is in the local journal; the latest state
+ * of each user replaces any earlier one still waiting, and all waiting users are written every window as one JDBC
+ * batch. Until then reads are expected to {@link #overlay} the waiting state on what the database returns. Each
+ * flush publishes a {@link UsersFlushedEvent}, so that other nodes are only told to re-read once the rows are
+ * written. Updates left in the journal by a crash are replayed on startup, and a graceful shutdown flushes
+ * everything.
+ */
+@Component
+@Log4j2
+public class UserWriteBehind implements MetricsSource, DisposableBean {
+
+    private static final String UPDATE_SQL = "update users set first_name = ?, last_name = ?, birth_date = ?, "
+            + "address = ?, phone_number = ?, password = ?, role = ? where id = ?";
+
+    @Value("${user.write-behind.enabled}")
+    private boolean enabled;
+    @Value("${user.write-behind.window}")
+    private long window;
+    @Value("${user.write-behind.journal}")
+    private String journalPath;
+
+    private final DataSource dataSource;
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<UUID, User> pending = new ConcurrentHashMap<>();
+    // Guards the journal, and keeps it and the pending map in step.
+    private final Object lock = new Object();
+    private WriteBehindJournal journal;
+    private ScheduledThreadPoolExecutor scheduler;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+
+    public UserWriteBehind(DataSource dataSource, ObjectProvider<ShardRouter> shardRouter,
+                           ApplicationEventPublisher eventPublisher) {
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path path = Path.of(journalPath);
+        if (!path.isAbsolute()) {
+            throw new IllegalStateException("user.write-behind.journal must be an absolute path when write-behind is "
+                    + "enabled, got '" + journalPath + "'");
+        }
+        journal = new WriteBehindJournal(path);
+        List<User> replayed = journal.readAll();
+        for (User user : replayed) {
+            pending.put(user.getId(), user);
+        }
+        if (!replayed.isEmpty()) {
+            log.info("Replaying {} journaled user updates", pending.size());
+            flush();
+        }
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "user-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Makes the update durable and visible to reads; it reaches the database with the next flush.
+     */
+    public void enqueue(User user) {
+        synchronized (lock) {
+            try {
+                journal.append(user);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not journal the update of user " + user.getId(), e);
+            }
+            pending.put(user.getId(), user);
+        }
+        enqueued.increment();
+    }
+
+    /**
+     * Forgets a waiting update of a user that is being deleted. A flush already under way only updates no row.
+     */
+    public void discard(UUID id) {
+        synchronized (lock) {
+            pending.remove(id);
+        }
+    }
+
+    public Optional<User> pending(UUID id) {
+        return Optional.ofNullable(pending.get(id));
+    }
+
+    /**
+     * Replaces users that have a waiting update with their new state, drops those that no longer match and adds
+     * waiting users that now do.
+     */
+    public List<User> overlay(List<User> users, Predicate<User> matches) {
+        if (pending.isEmpty()) {
+            return users;
+        }
+        Map<UUID, User> waiting = new HashMap<>(pending);
+        List<User> result = new ArrayList<>(users.size());
+        for (User user : users) {
+            User update = waiting.remove(user.getId());
+            if (update == null) {
+                result.add(user);
+            } else if (matches.test(update)) {
+                result.add(update);
+            }
+        }
+        for (User update : waiting.values()) {
+            if (matches.test(update)) {
+                result.add(update);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<UUID, User> batch = new HashMap<>(pending);
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            log.warn("Could not flush {} user updates; keeping them for the next attempt", batch.size(), e);
+            return;
+        }
+        synchronized (lock) {
+            for (User user : batch.values()) {
+                pending.remove(user.getId(), user);
+            }
+            try {
+                journal.rewrite(pending.values());
+            } catch (IOException e) {
+                // The flushed updates stay in the journal and are replayed once more, which is harmless.
+                log.warn("Could not compact the write-behind journal", e);
+            }
+        }
+        flushedRows.add(batch.size());
+        eventPublisher.publishEvent(new UsersFlushedEvent(batch.keySet()));
+    }
+
+    private void write(Map<UUID, User> batch) {
+        ShardRouter router = shardRouter.getIfAvailable();
+        if (router == null) {
+            update(new JdbcTemplate(dataSource), new ArrayList<>(batch.values()));
+            return;
+        }
+        Map<Integer, List<User>> byShard = new HashMap<>();
+        for (User user : batch.values()) {
+            byShard.computeIfAbsent(router.shardFor(user.getId()), shard -> new ArrayList<>()).add(user);
+        }
+        for (Map.Entry<Integer, List<User>> shard : byShard.entrySet()) {
+            update(new JdbcTemplate(router.getDataSource(shard.getKey())), shard.getValue());
+        }
+    }
+
+    private void update(JdbcTemplate jdbcTemplate, List<User> users) {
+        List<Object[]> rows = new ArrayList<>(users.size());
+        for (User user : users) {
+            rows.add(new Object[]{user.getFirstName(), user.getLastName(),
+                    user.getBirthDate() != null ? Date.valueOf(user.getBirthDate()) : null, user.getAddress(),
+                    user.getPhoneNumber(), user.getPassword(), user.getRole() != null ? user.getRole().name() : null,
+                    user.getId()});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+        batches.increment();
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "writeBehind";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("pending", pending.size());
+        metrics.put("enqueued", enqueued.sum());
+        metrics.put("flushedRows", flushedRows.sum());
+        metrics.put("batches", batches.sum());
+        metrics.put("failedFlushes", failedFlushes.sum());
+        return metrics;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        scheduler.shutdown();
+        flush();
+        synchronized (lock) {
+            journal.close();
+        }
+        if (!pending.isEmpty()) {
+            log.warn("{} user updates could not be flushed on shutdown; they stay journaled", pending.size());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.writebehind;
+
+import com.example.model.Role;
+import com.example.model.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Local file holding the user updates that have been acknowledged but not yet written to the database. Each record
+ * is {@code [length][crc32][payload]} and is forced to disk before {@link #append} returns. Reading stops at the
+ * first torn or corrupt record, which can only be the last one written before a crash. Not thread-safe.
+ */
+class WriteBehindJournal implements Closeable {
+
+    private static final int HEADER_BYTES = 4 + 8;
+
+    private final Path path;
+    private FileChannel channel;
+
+    WriteBehindJournal(Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = open(path);
+    }
+
+    List<User> readAll() throws IOException {
+        List<User> users = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return users;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            while (true) {
+                int length;
+                long checksum;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    checksum = in.readLong();
+                    if (length <= 0 || length > (1 << 20)) {
+                        break;
+                    }
+                    payload = in.readNBytes(length);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (payload.length != length || crc(payload) != checksum) {
+                    break;
+                }
+                users.add(decode(payload));
+            }
+        }
+        return users;
+    }
+
+    void append(User user) throws IOException {
+        write(channel, user);
+        channel.force(false);
+    }
+
+    /**
+     * Replaces the journal with one holding only the given users, atomically.
+     */
+    void rewrite(Collection<User> users) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel rewritten = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (User user : users) {
+                write(rewritten, user);
+            }
+            rewritten.force(true);
+        }
+        channel.close();
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void write(FileChannel target, User user) throws IOException {
+        byte[] payload = encode(user);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putLong(crc(payload)).put(payload).flip();
+        while (record.hasRemaining()) {
+            target.write(record);
+        }
+    }
+
+    private static byte[] encode(User user) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(user.getId().getMostSignificantBits());
+        out.writeLong(user.getId().getLeastSignificantBits());
+        writeString(out, user.getEmail());
+        writeString(out, user.getPassword());
+        writeString(out, user.getFirstName());
+        writeString(out, user.getLastName());
+        writeString(out, user.getBirthDate() != null ? user.getBirthDate().toString() : null);
+        writeString(out, user.getAddress());
+        writeString(out, user.getPhoneNumber());
+        writeString(out, user.getRole() != null ? user.getRole().name() : null);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static User decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        User user = new User();
+        user.setId(new UUID(in.readLong(), in.readLong()));
+        user.setEmail(readString(in));
+        user.setPassword(readString(in));
+        user.setFirstName(readString(in));
+        user.setLastName(readString(in));
+        String birthDate = readString(in);
+        user.setBirthDate(birthDate != null ? LocalDate.parse(birthDate) : null);
+        user.setAddress(readString(in));
+        user.setPhoneNumber(readString(in));
+        String role = readString(in);
+        user.setRole(role != null ? Role.valueOf(role) : null);
+        return user;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static long crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+}
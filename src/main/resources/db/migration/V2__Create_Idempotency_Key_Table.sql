@@ -0,0 +1,11 @@
+create table idempotency_keys
+(
+    idempotency_key varchar(512) not null
+        primary key,
+    status          integer      not null,
+    content_type    varchar(255),
+    body            bytea,
+    created_at      timestamp    not null
+);
+
+create index idx_idempotency_keys_created_at on idempotency_keys (created_at);
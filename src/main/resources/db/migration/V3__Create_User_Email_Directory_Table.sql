@@ -0,0 +1,7 @@
+create table user_email_directory
+(
+    email   varchar(255) not null
+        primary key,
+    user_id uuid         not null,
+    shard   integer      not null
+);
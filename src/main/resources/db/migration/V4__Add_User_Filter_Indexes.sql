@@ -0,0 +1,14 @@
+alter table users
+    add column email_domain varchar(255);
+
+update users
+set email_domain = lower(regexp_replace(email, '^.*@', ''))
+where email like '%@%';
+
+-- Birth date ranges, optionally narrowed to one role; id keeps the sort order stable between pages.
+create index idx_users_birth_date on users (birth_date, id);
+create index idx_users_role_birth_date on users (role, birth_date, id);
+
+-- Case-insensitive last name prefixes: pattern_ops lets LIKE 'abc%' use the index under any collation.
+create index idx_users_last_name_prefix on users (lower(last_name) varchar_pattern_ops);
+create index idx_users_email_domain_last_name on users (email_domain, lower(last_name) varchar_pattern_ops);
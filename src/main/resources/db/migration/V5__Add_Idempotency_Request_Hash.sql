@@ -0,0 +1,2 @@
+alter table idempotency_keys
+    add column request_hash varchar(64);
@@ -0,0 +1,2 @@
+-- An email domain narrowed by a birth date range, in the default birthDate, id order.
+create index idx_users_email_domain_birth_date on users (email_domain, birth_date, id);
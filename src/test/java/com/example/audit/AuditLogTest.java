@@ -0,0 +1,142 @@
+package com.example.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    private AuditLog auditLog;
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (auditLog != null) {
+            auditLog.destroy();
+        }
+    }
+
+    @Test
+    public void testAppendedRecordsCanBeTailedInOrder() throws Exception {
+        auditLog = start(1 << 20, 3_600_000);
+        UUID userId = UUID.randomUUID();
+
+        auditLog.append(AuditRecord.of(AuditAction.CREATE, userId, null, "john@example.com"));
+        auditLog.append(AuditRecord.of(AuditAction.LOGIN_SUCCEEDED, userId, "john@example.com", "john@example.com"));
+        auditLog.append(AuditRecord.of(AuditAction.LOGIN_FAILED, null, null, "jöhn@example.com"));
+        awaitWritten(3);
+
+        AuditTail first = auditLog.tail(null, 2);
+        assertEquals(2, first.getRecords().size());
+        assertEquals(AuditAction.CREATE, first.getRecords().get(0).getAction());
+        assertEquals(userId, first.getRecords().get(0).getUserId());
+        assertNull(first.getRecords().get(0).getActor());
+
+        AuditTail second = auditLog.tail(first.getNext(), 10);
+        assertEquals(1, second.getRecords().size());
+        assertEquals("jöhn@example.com", second.getRecords().get(0).getSubject());
+        assertNull(second.getRecords().get(0).getUserId());
+
+        assertTrue(auditLog.tail(second.getNext(), 10).getRecords().isEmpty());
+    }
+
+    @Test
+    public void testSegmentsRollBySizeAndReplayAcrossThem() throws Exception {
+        auditLog = start(4096, 3_600_000);
+        for (int i = 0; i < 200; i++) {
+            auditLog.append(AuditRecord.of(AuditAction.UPDATE, UUID.randomUUID(), "admin@example.com", "user" + i + "@example.com"));
+        }
+        awaitWritten(200);
+
+        List<AuditRecord> replayed = new ArrayList<>();
+        auditLog.replay(null, replayed::add);
+
+        assertEquals(200, replayed.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals("user" + i + "@example.com", replayed.get(i).getSubject());
+        }
+        assertTrue(new AuditLogReader(directory).segments().size() > 1);
+    }
+
+    @Test
+    public void testSegmentsRollByAge() throws Exception {
+        auditLog = start(1 << 20, 50);
+        auditLog.append(AuditRecord.of(AuditAction.DELETE, UUID.randomUUID(), null, "gone@example.com"));
+        awaitWritten(1);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (new AuditLogReader(directory).segments().size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, new AuditLogReader(directory).segments().size());
+        assertEquals(1, auditLog.tail(null, 10).getRecords().size());
+    }
+
+    @Test
+    public void testOfflineReaderStopsAtDamagedRecord() throws Exception {
+        auditLog = start(1 << 20, 3_600_000);
+        auditLog.append(AuditRecord.of(AuditAction.CREATE, UUID.randomUUID(), null, "a@example.com"));
+        auditLog.append(AuditRecord.of(AuditAction.CREATE, UUID.randomUUID(), null, "b@example.com"));
+        awaitWritten(2);
+        auditLog.destroy();
+        auditLog = null;
+
+        AuditLogReader reader = new AuditLogReader(directory);
+        AuditTail all = reader.read(null, null, 10);
+        assertEquals(2, all.getRecords().size());
+
+        corruptLastByte(directory.resolve(AuditLogReader.fileName(reader.segments().get(0))));
+
+        assertEquals(1, reader.read(null, null, 10).getRecords().size());
+    }
+
+    @Test
+    public void testRelativeDirectoryIsRejectedWhenEnabled() {
+        AuditLog log = new AuditLog();
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "directory", "audit");
+
+        assertThrows(IllegalStateException.class, log::start);
+    }
+
+    private AuditLog start(int segmentSize, long segmentMaxAge) throws IOException {
+        AuditLog log = new AuditLog();
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "directory", directory.toString());
+        ReflectionTestUtils.setField(log, "segmentSize", segmentSize);
+        ReflectionTestUtils.setField(log, "segmentMaxAgeMillis", segmentMaxAge);
+        ReflectionTestUtils.setField(log, "queueCapacity", 1024);
+        ReflectionTestUtils.setField(log, "maxBatch", 64);
+        log.start();
+        return log;
+    }
+
+    private void awaitWritten(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((long) auditLog.getMetrics().get("written") < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, auditLog.getMetrics().get("written"));
+    }
+
+    private static void corruptLastByte(Path segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xFF);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.cache;
+
+import com.example.event.UserChangeEvent;
+import com.example.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BirthDateRangeCacheTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(1990, 1, 1);
+    private static final LocalDate JAN_31 = LocalDate.of(1990, 1, 31);
+    private static final LocalDate FEB_1 = LocalDate.of(1990, 2, 1);
+    private static final LocalDate FEB_28 = LocalDate.of(1990, 2, 28);
+
+    private BirthDateRangeCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new BirthDateRangeCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1L << 20);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testRepeatedRangeIsServedFromCache() {
+        cache.get(JAN_1, JAN_31, loader(user(JAN_1)));
+        List<User> users = cache.get(JAN_1, JAN_31, loader(user(JAN_1)));
+
+        assertEquals(1, users.size());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testChangeOnlyInvalidatesRangesContainingTheBirthDate() {
+        cache.get(JAN_1, JAN_31, loader());
+        cache.get(FEB_1, FEB_28, loader());
+        cache.get(JAN_1, FEB_28, loader());
+
+        cache.onUserChange(UserChangeEvent.created(user(LocalDate.of(1990, 2, 10))));
+        cache.get(JAN_1, JAN_31, loader());
+        cache.get(FEB_1, FEB_28, loader());
+        cache.get(JAN_1, FEB_28, loader());
+
+        assertEquals(5, loads.get());
+        assertEquals(2L, cache.getMetrics().get("invalidations"));
+    }
+
+    @Test
+    public void testUpdateInvalidatesRangesOfOldAndNewBirthDate() {
+        cache.get(JAN_1, JAN_31, loader());
+        cache.get(FEB_1, FEB_28, loader());
+
+        cache.onUserChange(UserChangeEvent.updated(user(LocalDate.of(1990, 1, 15)), user(LocalDate.of(1990, 2, 15))));
+
+        assertEquals(0, cache.getMetrics().get("entries"));
+        assertEquals(0, cache.getMetrics().get("indexSegments"));
+    }
+
+    @Test
+    public void testLoadOverlappingAConcurrentChangeIsNotCached() {
+        cache.get(JAN_1, JAN_31, () -> {
+            loads.incrementAndGet();
+            cache.onUserChange(UserChangeEvent.deleted(user(LocalDate.of(1990, 1, 20))));
+            return List.of();
+        });
+        cache.get(FEB_1, FEB_28, () -> {
+            loads.incrementAndGet();
+            cache.onUserChange(UserChangeEvent.deleted(user(LocalDate.of(1990, 1, 20))));
+            return List.of();
+        });
+        cache.get(JAN_1, JAN_31, loader());
+        cache.get(FEB_1, FEB_28, loader());
+
+        assertEquals(3, loads.get());
+        assertEquals(1L, cache.getMetrics().get("discardedLoads"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedRangeIsEvictedWhenOverBudget() {
+        ReflectionTestUtils.setField(cache, "maxBytes", 600L);
+        cache.get(JAN_1, JAN_31, loader(user(JAN_1)));
+        cache.get(FEB_1, FEB_28, loader(user(FEB_1)));
+        cache.get(JAN_1, JAN_31, loader(user(JAN_1)));
+        cache.get(JAN_1, FEB_28, loader(user(JAN_1)));
+
+        cache.get(JAN_1, JAN_31, loader(user(JAN_1)));
+        cache.get(FEB_1, FEB_28, loader(user(FEB_1)));
+
+        assertEquals(2L, cache.getMetrics().get("evictions"));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testDisabledCacheAlwaysLoads() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        cache.get(JAN_1, JAN_31, loader());
+        cache.get(JAN_1, JAN_31, loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    private Supplier<List<User>> loader(User... users) {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(users);
+        };
+    }
+
+    private static User user(LocalDate birthDate) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("user@example.com");
+        user.setBirthDate(birthDate);
+        return user;
+    }
+}
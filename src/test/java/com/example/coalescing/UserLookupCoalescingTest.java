@@ -0,0 +1,157 @@
+package com.example.coalescing;
+
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserLookupCoalescingTest {
+
+    @Test
+    public void testConcurrentCallersShareOneExecution() throws Exception {
+        SingleFlight<UUID, User> flight = new SingleFlight<>(UserLookupCoalescingAspect::copyOf);
+        UUID id = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<User>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        return flight.execute(id, () -> {
+                            executions.incrementAndGet();
+                            release.await();
+                            return user(id);
+                        });
+                    } catch (Throwable e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+            }
+            while (flight.getCalls() < 8) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            List<User> users = new ArrayList<>();
+            for (Future<User> result : results) {
+                users.add(result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(1, flight.getExecutions());
+            users.forEach(user -> assertEquals(id, user.getId()));
+            for (int i = 1; i < users.size(); i++) {
+                assertNotSame(users.get(0), users.get(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureIsPropagatedAndNotCached() throws Throwable {
+        SingleFlight<String, User> flight = new SingleFlight<>(UserLookupCoalescingAspect::copyOf);
+
+        assertThrows(IllegalStateException.class, () -> flight.execute("a@example.com", () -> {
+            throw new IllegalStateException("down");
+        }));
+        User user = flight.execute("a@example.com", () -> user(UUID.randomUUID()));
+
+        assertNotNull(user);
+        assertEquals(2, flight.getExecutions());
+    }
+
+    @Test
+    public void testIdsRequestedDuringARunningLoadAreMergedIntoOneBatch() throws Exception {
+        List<List<UUID>> batches = new ArrayList<>();
+        CountDownLatch firstLoadStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstLoad = new CountDownLatch(1);
+        MicroBatcher<UUID, User> batcher = new MicroBatcher<>(ids -> {
+            boolean first;
+            synchronized (batches) {
+                batches.add(ids);
+                first = batches.size() == 1;
+            }
+            if (first) {
+                firstLoadStarted.countDown();
+                try {
+                    releaseFirstLoad.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            Map<UUID, User> users = new HashMap<>();
+            ids.forEach(id -> users.put(id, user(id)));
+            return users;
+        }, 60_000, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                    UUID.randomUUID());
+            List<Future<User>> results = new ArrayList<>();
+            results.add(executor.submit(() -> load(batcher, ids.get(0))));
+            assertTrue(firstLoadStarted.await(5, TimeUnit.SECONDS));
+            for (UUID id : ids.subList(1, ids.size())) {
+                results.add(executor.submit(() -> load(batcher, id)));
+            }
+            // The four waiting ids fill a batch and are loaded without waiting for the window.
+            for (int i = 1; i < ids.size(); i++) {
+                assertEquals(ids.get(i), results.get(i).get(5, TimeUnit.SECONDS).getId());
+            }
+            releaseFirstLoad.countDown();
+            assertEquals(ids.get(0), results.get(0).get(5, TimeUnit.SECONDS).getId());
+
+            assertEquals(2, batches.size());
+            assertEquals(List.of(ids.get(0)), batches.get(0));
+            assertEquals(4, batches.get(1).size());
+            assertEquals(2, batcher.getBatches());
+        } finally {
+            releaseFirstLoad.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testIdleLoadRunsOnCallerThreadWithoutWaitingAndMissingIdsResolveToNull() throws Throwable {
+        List<Thread> loaders = new ArrayList<>();
+        MicroBatcher<UUID, User> batcher = new MicroBatcher<>(ids -> {
+            loaders.add(Thread.currentThread());
+            return Map.of();
+        }, 60_000, 100);
+
+        long started = System.nanoTime();
+        assertNull(batcher.load(UUID.randomUUID()));
+
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(List.of(Thread.currentThread()), loaders);
+        assertEquals(1, batcher.getBatches());
+    }
+
+    private static User load(MicroBatcher<UUID, User> batcher, UUID id) {
+        try {
+            return batcher.load(id);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static User user(UUID id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("a@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.configuration;
+
+import com.example.controller.UserController;
+import com.example.model.User;
+import com.example.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class WebMvcConfigTest {
+
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+    private final ObjectMapper smile = Jackson2ObjectMapperBuilder.smile().build();
+    private final UserService userService = mock(UserService.class);
+
+    private AnnotationConfigWebApplicationContext context;
+    private MockMvc mockMvc;
+    private User user;
+
+    @EnableWebMvc
+    @Configuration
+    static class MvcConfiguration {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(MvcConfiguration.class, WebMvcConfig.class, UserController.class);
+        context.addBeanFactoryPostProcessor(beanFactory -> beanFactory.registerSingleton("userService", userService));
+        context.refresh();
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        user = new User();
+        user.setEmail("binary@example.com");
+        user.setFirstName("Binary");
+        user.setLastName("Format");
+        user.setBirthDate(LocalDate.of(1990, 5, 17));
+        when(userService.getUserById(user.getId())).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void testAcceptHeaderSelectsCborAndSmile() throws Exception {
+        MvcResult cborResult = mockMvc.perform(get("/api/users/{id}", user.getId()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        assertEquals(user, cbor.readValue(cborResult.getResponse().getContentAsByteArray(), User.class));
+
+        MvcResult smileResult = mockMvc.perform(get("/api/users/{id}", user.getId()).accept(WebMvcConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WebMvcConfig.APPLICATION_SMILE))
+                .andReturn();
+        assertEquals(user, smile.readValue(smileResult.getResponse().getContentAsByteArray(), User.class));
+    }
+
+    @Test
+    public void testFormatParameterSelectsFormatWithoutAcceptHeader() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", user.getId()).param("format", "smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WebMvcConfig.APPLICATION_SMILE));
+        mockMvc.perform(get("/api/users/{id}", user.getId()).param("format", "cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void testCborAndSmileRequestBodiesRoundTrip() throws Exception {
+        when(userService.createUser(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userService.updateUser(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MvcResult created = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(user)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        assertEquals(user, cbor.readValue(created.getResponse().getContentAsByteArray(), User.class));
+
+        MvcResult updated = mockMvc.perform(put("/api/users/{id}", user.getId())
+                        .contentType(WebMvcConfig.APPLICATION_SMILE)
+                        .accept(WebMvcConfig.APPLICATION_SMILE)
+                        .content(smile.writeValueAsBytes(user)))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(user, smile.readValue(updated.getResponse().getContentAsByteArray(), User.class));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.controller;
+
+import com.example.audit.AuditLog;
+import com.example.cache.BirthDateRangeCache;
+import com.example.coalescing.CoalescingConfiguration;
+import com.example.dto.AuthenticationRequestDTO;
+import com.example.model.User;
+import com.example.readmodel.UserReadModel;
+import com.example.repository.UserRepository;
+import com.example.security.JwtTokenProvider;
+import com.example.security.UserAuthenticationProvider;
+import com.example.service.UserService;
+import com.example.similarity.SimilarUserIndex;
+import com.example.validator.UserValidator;
+import com.example.writebehind.UserWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static com.example.timing.QueryCountAssertions.assertQueryCount;
+import static org.junit.jupiter.api.Assertions.*;
+
+// The Flyway migrations are PostgreSQL only, so Hibernate creates the schema in an in-memory H2 database instead.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:authentication-controller;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AuthenticationController.class, UserService.class, UserValidator.class, UserReadModel.class,
+        BirthDateRangeCache.class, UserWriteBehind.class, SimilarUserIndex.class, UserAuthenticationProvider.class,
+        CoalescingConfiguration.class, AuthenticationControllerQueryCountTest.SecurityConfiguration.class})
+// Each repository call runs in its own transaction, as it does behind the real endpoints.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AuthenticationControllerQueryCountTest {
+
+    @Autowired
+    private AuthenticationController authenticationController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private AuditLog auditLog;
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testSuccessfulLoginIssuesOneQuery() {
+        User user = new User();
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail("login@example.com");
+        user.setPassword(passwordEncoder.encode("valid_password"));
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        userRepository.save(user);
+        AuthenticationRequestDTO request = new AuthenticationRequestDTO();
+        request.setEmail("login@example.com");
+        request.setPassword("valid_password");
+
+        ResponseEntity<?> response = assertQueryCount(1, () -> authenticationController.authenticate(request));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    public void testWrongPasswordIsRejected() {
+        User user = new User();
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail("wrong@example.com");
+        user.setPassword(passwordEncoder.encode("valid_password"));
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        userRepository.save(user);
+        AuthenticationRequestDTO request = new AuthenticationRequestDTO();
+        request.setEmail("wrong@example.com");
+        request.setPassword("other_password");
+
+        assertEquals(HttpStatus.FORBIDDEN, authenticationController.authenticate(request).getStatusCode());
+    }
+
+    @TestConfiguration
+    static class SecurityConfiguration {
+
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+
+        @Bean
+        AuthenticationManager authenticationManager(UserAuthenticationProvider provider) {
+            return new ProviderManager(provider);
+        }
+    }
+}
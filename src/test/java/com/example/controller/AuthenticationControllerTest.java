@@ -1,5 +1,7 @@
 package com.example.controller;
 
+import com.example.audit.AuditAction;
+import com.example.audit.AuditLog;
 import com.example.dto.AuthenticationRequestDTO;
 import com.example.exception.BadRequestException;
 import com.example.model.User;
@@ -16,6 +18,8 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -30,12 +34,15 @@ public class AuthenticationControllerTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private AuditLog auditLog;
+
     private AuthenticationController authenticationController;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        authenticationController = new AuthenticationController(userService, authenticationManager, jwtTokenProvider);
+        authenticationController = new AuthenticationController(userService, authenticationManager, jwtTokenProvider, auditLog);
     }
 
     @Test
@@ -46,7 +53,7 @@ public class AuthenticationControllerTest {
 
         when(userService.register(user)).thenReturn(user);
 
-        ResponseEntity<String> response = authenticationController.registration(user);
+        ResponseEntity<?> response = authenticationController.registration(user);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals("User registered successfully", response.getBody());
@@ -60,7 +67,7 @@ public class AuthenticationControllerTest {
 
         doThrow(BadRequestException.class).when(userService).register(user);
 
-        ResponseEntity<String> response = authenticationController.registration(user);
+        ResponseEntity<?> response = authenticationController.registration(user);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
@@ -75,15 +82,19 @@ public class AuthenticationControllerTest {
         user.setEmail(request.getEmail());
 
         Authentication authentication = new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword());
-        when(authenticationManager.authenticate(authentication)).thenReturn(authentication);
+        when(authenticationManager.authenticate(authentication))
+                .thenReturn(new UsernamePasswordAuthenticationToken(user, request.getPassword(), List.of()));
 
-        when(userService.findByEmail(request.getEmail())).thenReturn(user);
         when(jwtTokenProvider.createToken(request.getEmail(), user.getPassword())).thenReturn("valid_token");
 
         ResponseEntity<?> response = authenticationController.authenticate(request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
+        verify(auditLog).append(argThat(record -> record.getAction() == AuditAction.LOGIN_SUCCEEDED
+                && request.getEmail().equals(record.getSubject())));
+        verify(userService).rehashPasswordIfNeeded(user, request.getPassword());
+        verify(userService, never()).findByEmail(any());
     }
 
 
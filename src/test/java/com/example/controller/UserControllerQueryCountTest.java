@@ -0,0 +1,115 @@
+package com.example.controller;
+
+import com.example.cache.BirthDateRangeCache;
+import com.example.coalescing.CoalescingConfiguration;
+import com.example.dto.UserBatchRequestDTO;
+import com.example.dto.UserFilterDTO;
+import com.example.dto.UserPageDTO;
+import com.example.model.User;
+import com.example.readmodel.UserReadModel;
+import com.example.repository.UserRepository;
+import com.example.service.UserService;
+import com.example.similarity.SimilarUserIndex;
+import com.example.validator.UserValidator;
+import com.example.writebehind.UserWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.timing.QueryCountAssertions.assertQueryCount;
+import static org.junit.jupiter.api.Assertions.*;
+
+// The Flyway migrations are PostgreSQL only, so Hibernate creates the schema in an in-memory H2 database instead.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-controller;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UserController.class, UserService.class, UserValidator.class, UserReadModel.class,
+        BirthDateRangeCache.class, UserWriteBehind.class, SimilarUserIndex.class, CoalescingConfiguration.class})
+// Each repository call runs in its own transaction, as it does behind the real endpoints.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserControllerQueryCountTest {
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testGetUserByIdIssuesOneQuery() {
+        User user = userRepository.save(user("single@example.com"));
+
+        assertQueryCount(1, () -> userController.getUserById(user.getId()));
+    }
+
+    @Test
+    public void testBatchIssuesOneQueryRegardlessOfSize() {
+        User first = userRepository.save(user("first@example.com"));
+        User second = userRepository.save(user("second@example.com"));
+        UserBatchRequestDTO request = new UserBatchRequestDTO();
+        request.setIds(List.of(first.getId(), second.getId()));
+
+        assertQueryCount(1, () -> userController.getUsersByIds(request));
+    }
+
+    @Test
+    public void testUpdateReadsTheUserOnlyOnce() {
+        User user = userRepository.save(user("update@example.com"));
+        User resource = new User();
+        resource.setFirstName("Updated");
+
+        // One select for the existing user and one update; no second select of the same row.
+        assertQueryCount(2, () -> userController.updateUser(user.getId(), resource));
+
+        assertEquals("Updated", userRepository.findById(user.getId()).orElseThrow().getFirstName());
+    }
+
+    @Test
+    public void testFilterIssuesOneQuery() {
+        userRepository.save(user("filter@example.com"));
+        userRepository.save(user("other@example.org"));
+        UserFilterDTO filter = new UserFilterDTO();
+        filter.setEmailDomain("Example.COM");
+        filter.setNamePrefix("do");
+
+        UserPageDTO page = assertQueryCount(1, () -> userController.filterUsers(filter).getBody());
+
+        assertEquals(1, page.getUsers().size());
+        assertEquals("filter@example.com", page.getUsers().get(0).getEmail());
+        assertFalse(page.isHasNext());
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail(email);
+        user.setPassword("valid_password");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -80,12 +80,12 @@ public class UserControllerTest {
         UUID userId = UUID.randomUUID();
         User user = new User();
 
-        when(userService.findById(userId)).thenReturn(user);
         when(userService.updateUser(user)).thenReturn(user);
 
         ResponseEntity<User> response = userController.updateUser(userId, user);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(user, response.getBody());
+        verify(userService, never()).findById(userId);
     }
 }
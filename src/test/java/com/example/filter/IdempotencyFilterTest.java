@@ -0,0 +1,96 @@
+package com.example.filter;
+
+import com.example.model.IdempotencyRecord;
+import com.example.repository.IdempotencyRecordRepository;
+import com.example.service.IdempotencyStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class IdempotencyFilterTest {
+
+    private static final String KEY = IdempotencyFilter.storageKey("/auth/api/register", null, "retry-1");
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private IdempotencyStore store;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        store = new IdempotencyStore(repository);
+        ReflectionTestUtils.setField(store, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(store, "waitTimeoutMillis", 50L);
+        ReflectionTestUtils.setField(store, "retryAfterSeconds", 2);
+        filter = new IdempotencyFilter(store);
+    }
+
+    @Test
+    public void testReplaysOnlyForTheSameBody() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(request("{\"email\":\"a@example.com\"}"), first, new MockFilterChain());
+
+        MockHttpServletResponse replayed = new MockHttpServletResponse();
+        filter.doFilter(request("{\"email\":\"a@example.com\"}"), replayed, new MockFilterChain());
+        MockHttpServletResponse mismatched = new MockHttpServletResponse();
+        filter.doFilter(request("{\"email\":\"b@example.com\"}"), mismatched, new MockFilterChain());
+
+        assertEquals("true", replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(422, mismatched.getStatus());
+    }
+
+    @Test
+    public void testRetryDuringAStuckRequestGetsConflict() throws Exception {
+        store.claim(KEY);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("{}"), response, new MockFilterChain());
+
+        assertEquals(409, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+    }
+
+    @Test
+    public void testRecordsWithoutHashAreStillReplayed() throws Exception {
+        store.claim(KEY);
+        store.complete(KEY, new IdempotencyRecord(KEY, 201, null, null, Instant.now(), null));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("{}"), response, new MockFilterChain());
+
+        assertEquals(201, response.getStatus());
+    }
+
+    @Test
+    public void testStorageKeyFitsTheColumnWhateverTheCallerSends() {
+        String principal = "a".repeat(243) + "@example.com";
+        String key = IdempotencyFilter.storageKey("/api/users", principal, "k".repeat(255));
+
+        assertEquals(64, key.length());
+        assertNotEquals(key, IdempotencyFilter.storageKey("/api/users", principal, "k".repeat(254)));
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/api/register");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "retry-1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
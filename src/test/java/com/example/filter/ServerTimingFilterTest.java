@@ -0,0 +1,66 @@
+package com.example.filter;
+
+import com.example.timing.ServerTiming;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class ServerTimingFilterTest {
+
+    private final EventController controller = new EventController();
+    private MockMvc mockMvc;
+
+    @RestController
+    static class EventController {
+
+        private SseEmitter emitter;
+
+        @GetMapping("/events")
+        public SseEmitter events() {
+            emitter = new SseEmitter(60_000L);
+            return emitter;
+        }
+
+        @GetMapping("/value")
+        public String value() {
+            return "value";
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).addFilters(new ServerTimingFilter()).build();
+    }
+
+    @Test
+    public void testBufferedResponseCarriesServerTimingHeader() throws Exception {
+        mockMvc.perform(get("/value"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("value"))
+                .andExpect(header().string(ServerTiming.HEADER, containsString("total;dur=")));
+    }
+
+    @Test
+    public void testEventsSentAfterTheFilterReturnedReachTheClientWithWildcardAccept() throws Exception {
+        MvcResult result = mockMvc.perform(get("/events").accept(MediaType.ALL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        controller.emitter.send(SseEmitter.event().data("later"));
+
+        String content = result.getResponse().getContentAsString();
+        assertTrue(content.contains("data:later"), content);
+        controller.emitter.complete();
+    }
+}
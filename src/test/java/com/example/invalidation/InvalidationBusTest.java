@@ -0,0 +1,152 @@
+package com.example.invalidation;
+
+import com.example.event.UserChangeEvent;
+import com.example.event.UserInvalidationEvent;
+import com.example.event.UsersFlushedEvent;
+import com.example.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class InvalidationBusTest {
+
+    private LoopbackInvalidationTransport transport;
+    private ApplicationEventPublisher writerEvents;
+    private ApplicationEventPublisher readerEvents;
+    private InvalidationBus writer;
+    private InvalidationBus reader;
+
+    @BeforeEach
+    public void setUp() {
+        InvalidationProperties properties = new InvalidationProperties();
+        properties.setTransport(InvalidationProperties.Transport.LOOPBACK);
+        // Long enough that only the test triggers flushes and heartbeats.
+        properties.setCoalesceWindow(60_000);
+        properties.setHeartbeatInterval(60_000);
+        properties.setMaxIdsPerMessage(3);
+        transport = new LoopbackInvalidationTransport();
+        writerEvents = mock(ApplicationEventPublisher.class);
+        readerEvents = mock(ApplicationEventPublisher.class);
+        writer = new InvalidationBus(properties, transport, writerEvents);
+        reader = new InvalidationBus(properties, transport, readerEvents);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writer.destroy();
+        reader.destroy();
+    }
+
+    @Test
+    public void testChangesAreCoalescedIntoOneInvalidation() {
+        User first = user(LocalDate.of(1990, 1, 1));
+        User second = user(LocalDate.of(1991, 1, 1));
+        writer.onUserChange(UserChangeEvent.created(first));
+        writer.onUserChange(UserChangeEvent.updated(first, first));
+        writer.onUserChange(UserChangeEvent.deleted(second));
+
+        writer.flush();
+
+        UserInvalidationEvent event = receivedEvent();
+        assertFalse(event.isAll());
+        assertEquals(Set.of(first.getId(), second.getId()), event.getUserIds());
+        assertEquals(Set.of(first.getBirthDate(), second.getBirthDate()), event.getBirthDates());
+        verifyNoInteractions(writerEvents);
+    }
+
+    @Test
+    public void testDeferredUpdatesWaitForTheirFlush() {
+        User before = user(LocalDate.of(1990, 1, 1));
+        User after = user(LocalDate.of(1992, 2, 2));
+        after.setId(before.getId());
+        writer.onUserChange(UserChangeEvent.deferredUpdate(before, after));
+
+        writer.flush();
+        verifyNoInteractions(readerEvents);
+
+        writer.onUsersFlushed(new UsersFlushedEvent(Set.of(before.getId())));
+        writer.flush();
+
+        UserInvalidationEvent event = receivedEvent();
+        assertEquals(Set.of(before.getId()), event.getUserIds());
+        assertEquals(Set.of(before.getBirthDate(), after.getBirthDate()), event.getBirthDates());
+    }
+
+    @Test
+    public void testSequenceGapInvalidatesEverything() {
+        writer.onUserChange(UserChangeEvent.created(user(LocalDate.of(1990, 1, 1))));
+        writer.flush();
+        reset(readerEvents);
+
+        reader.receive(new InvalidationMessage("writer-2", 1, false, false, Set.of(UUID.randomUUID()), Set.of()));
+        reader.receive(new InvalidationMessage("writer-2", 3, false, false, Set.of(UUID.randomUUID()), Set.of()));
+
+        verify(readerEvents, times(2)).publishEvent(any(Object.class));
+        assertTrue(receivedEvents().getAllValues().get(1).isAll());
+        assertEquals(1L, reader.getMetrics().get("gaps"));
+    }
+
+    @Test
+    public void testDuplicatesAreIgnoredAndHeartbeatRevealsLostTail() {
+        InvalidationMessage message = new InvalidationMessage("writer-2", 1, false, false, Set.of(UUID.randomUUID()), Set.of());
+        reader.receive(message);
+        reader.receive(message);
+        reader.receive(InvalidationMessage.heartbeat("writer-2", 1));
+        verify(readerEvents, times(1)).publishEvent(any(Object.class));
+
+        reader.receive(InvalidationMessage.heartbeat("writer-2", 2));
+
+        verify(readerEvents, times(2)).publishEvent(any(Object.class));
+        assertTrue(receivedEvents().getAllValues().get(1).isAll());
+        assertEquals(1L, reader.getMetrics().get("duplicates"));
+    }
+
+    @Test
+    public void testTooManyUsersBecomeOneInvalidateAll() {
+        for (int i = 0; i < 4; i++) {
+            writer.onUserChange(UserChangeEvent.created(user(LocalDate.of(1990, 1, 1))));
+        }
+
+        writer.flush();
+
+        assertTrue(receivedEvent().isAll());
+    }
+
+    @Test
+    public void testMessageSurvivesEncoding() {
+        InvalidationMessage message = new InvalidationMessage("node", 42, false, false,
+                Set.of(UUID.randomUUID(), UUID.randomUUID()), Set.of(LocalDate.of(1990, 1, 1)));
+
+        assertEquals(message, InvalidationMessage.decode(message.encode()));
+        assertEquals(InvalidationMessage.heartbeat("node", 7),
+                InvalidationMessage.decode(InvalidationMessage.heartbeat("node", 7).encode()));
+    }
+
+    private UserInvalidationEvent receivedEvent() {
+        ArgumentCaptor<UserInvalidationEvent> captor = receivedEvents();
+        return captor.getValue();
+    }
+
+    private ArgumentCaptor<UserInvalidationEvent> receivedEvents() {
+        ArgumentCaptor<UserInvalidationEvent> captor = ArgumentCaptor.forClass(UserInvalidationEvent.class);
+        verify(readerEvents, atLeastOnce()).publishEvent(captor.capture());
+        return captor;
+    }
+
+    private static User user(LocalDate birthDate) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(user.getId() + "@example.com");
+        user.setBirthDate(birthDate);
+        return user;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradientLimiterTest {
+
+    @Test
+    public void testRejectsOnceLimitIsReachedAndRecoversOnRelease() {
+        GradientLimiter limiter = new GradientLimiter(3, 1, 10);
+        List<GradientLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+
+        assertNull(limiter.tryAcquire());
+        assertEquals(1L, limiter.getMetrics().get("rejected"));
+
+        permits.get(0).onIgnore();
+
+        assertNotNull(limiter.tryAcquire());
+        assertEquals(3, limiter.getMetrics().get("inFlight"));
+    }
+
+    @Test
+    public void testLimitGrowsWhileLatencyIsStable() {
+        GradientLimiter limiter = new GradientLimiter(20, 4, 200);
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), limiter.getLimit());
+        }
+
+        assertTrue(limiter.getLimit() > 20, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    public void testLimitShrinksWhenLatencyClimbs() {
+        GradientLimiter limiter = new GradientLimiter(100, 4, 200);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), limiter.getLimit());
+        }
+        int before = limiter.getLimit();
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(200), limiter.getLimit());
+        }
+
+        assertTrue(limiter.getLimit() < before / 2, before + " -> " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 4);
+    }
+
+    @Test
+    public void testSamplesAtLowUtilisationDoNotMoveTheLimit() {
+        GradientLimiter limiter = new GradientLimiter(100, 4, 200);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(500), 1);
+        }
+
+        assertEquals(100, limiter.getLimit());
+    }
+}
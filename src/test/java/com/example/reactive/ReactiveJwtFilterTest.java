@@ -0,0 +1,103 @@
+package com.example.reactive;
+
+import com.example.exception.JwtAuthenticationException;
+import com.example.model.Permission;
+import com.example.model.Role;
+import com.example.model.User;
+import com.example.security.AuthorizationProperties;
+import com.example.security.EndpointPermissionTable;
+import com.example.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+public class ReactiveJwtFilterTest {
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private ReactiveUserRepository repository;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        EndpointPermissionTable table = new EndpointPermissionTable(List.of(
+                rule("/api/users/search", Permission.UPDATE),
+                rule("/api/**", Permission.READ)));
+        client = WebTestClient.bindToRouterFunction(RouterFunctions.route()
+                .GET("/api/users/search", request -> ServerResponse.ok().bodyValue("search"))
+                .GET("/api/users", request -> ServerResponse.ok().bodyValue("users"))
+                .filter(new ReactiveJwtFilter(jwtTokenProvider, repository, table, "Authorization"))
+                .build()).build();
+    }
+
+    @Test
+    public void testRequestWithoutTokenIsUnauthorized() {
+        client.get().uri("/api/users").exchange().expectStatus().isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    public void testRequestWithInvalidTokenIsUnauthorized() {
+        when(jwtTokenProvider.validateToken("bad"))
+                .thenThrow(new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED));
+
+        client.get().uri("/api/users").header("Authorization", "bad")
+                .exchange().expectStatus().isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    public void testValidTokenOfDeletedUserIsUnauthorized() {
+        when(jwtTokenProvider.validateToken("good")).thenReturn(true);
+        when(jwtTokenProvider.getUsername("good")).thenReturn("gone@example.com");
+        when(repository.findByEmail("gone@example.com")).thenReturn(Mono.empty());
+
+        client.get().uri("/api/users").header("Authorization", "good")
+                .exchange().expectStatus().isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    public void testValidTokenIsCheckedAgainstPermissionTable() {
+        when(jwtTokenProvider.validateToken("good")).thenReturn(true);
+        when(jwtTokenProvider.getUsername("good")).thenReturn("guest@example.com");
+        when(repository.findByEmail("guest@example.com")).thenReturn(Mono.just(user(Role.GUEST)));
+
+        client.get().uri("/api/users").header("Authorization", "good")
+                .exchange().expectStatus().isOk().expectBody(String.class).isEqualTo("users");
+        client.get().uri("/api/users/search").header("Authorization", "good")
+                .exchange().expectStatus().isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    private static User user(Role role) {
+        User user = new User();
+        user.setEmail("guest@example.com");
+        user.setPassword("hash");
+        user.setRole(role);
+        return user;
+    }
+
+    private static AuthorizationProperties.Rule rule(String pattern, Permission permission) {
+        AuthorizationProperties.Rule rule = new AuthorizationProperties.Rule();
+        rule.setMethod("GET");
+        rule.setPattern(pattern);
+        rule.setPermissions(Set.of(permission));
+        return rule;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.readmodel;
+
+import com.example.model.Role;
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapUserStoreTest {
+
+    @Test
+    public void testUpsertAndGetRoundTripAllColumns() {
+        OffHeapUserStore store = new OffHeapUserStore(16);
+        User user = user("jöhn@example.com", LocalDate.of(1990, 5, 17));
+        user.setAddress("Kyiv");
+        user.setPhoneNumber("+380000000000");
+        user.setRole(Role.MEMBER);
+
+        store.upsert(user);
+
+        assertEquals(user, store.get(user.getId()));
+        assertNull(store.get(UUID.randomUUID()));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testUpdateReplacesRowAndDeleteHidesIt() {
+        OffHeapUserStore store = new OffHeapUserStore(16);
+        User user = user("a@example.com", LocalDate.of(1980, 1, 1));
+        store.upsert(user);
+
+        user.setFirstName("Renamed");
+        user.setBirthDate(LocalDate.of(2000, 1, 1));
+        store.upsert(user);
+
+        assertEquals("Renamed", store.get(user.getId()).getFirstName());
+        assertTrue(store.findByBirthDateBetween(LocalDate.of(1979, 1, 1), LocalDate.of(1981, 1, 1)).isEmpty());
+        assertEquals(1, store.size());
+        assertTrue(store.getGarbageBytes() > 0);
+
+        store.remove(user.getId());
+
+        assertNull(store.get(user.getId()));
+        assertTrue(store.findAll().isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testBulkInsertNeverOverridesConcurrentChanges() {
+        OffHeapUserStore store = new OffHeapUserStore(16);
+        User updated = user("updated@example.com", LocalDate.of(1990, 1, 1));
+        store.upsert(updated);
+        UUID deletedId = UUID.randomUUID();
+        store.remove(deletedId);
+
+        User stale = user("stale@example.com", LocalDate.of(1990, 1, 1));
+        stale.setId(updated.getId());
+        User deleted = user("deleted@example.com", LocalDate.of(1990, 1, 1));
+        deleted.setId(deletedId);
+
+        assertFalse(store.insertIfAbsent(stale));
+        assertFalse(store.insertIfAbsent(deleted));
+        assertEquals("updated@example.com", store.get(updated.getId()).getEmail());
+        assertNull(store.get(deletedId));
+    }
+
+    @Test
+    public void testRangeScanIsInclusiveAndSurvivesGrowth() {
+        OffHeapUserStore store = new OffHeapUserStore(16);
+        LocalDate start = LocalDate.of(1970, 1, 1);
+        for (int i = 0; i < 5000; i++) {
+            store.upsert(user("user" + i + "@example.com", start.plusDays(i)));
+        }
+
+        List<User> users = store.findByBirthDateBetween(start.plusDays(100), start.plusDays(199));
+
+        assertEquals(100, users.size());
+        assertEquals("user100@example.com", users.get(0).getEmail());
+        assertEquals("user199@example.com", users.get(99).getEmail());
+        assertEquals(5000, store.findAll().stream().map(User::getId).collect(Collectors.toSet()).size());
+        for (User user : users) {
+            assertEquals(user, store.get(user.getId()));
+        }
+    }
+
+    private static User user(String email, LocalDate birthDate) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("hash");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setBirthDate(birthDate);
+        return user;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CalibratedPasswordEncoderTest {
+
+    @Test
+    public void testCalibrationStaysWithinBounds() {
+        assertEquals(4, CalibratedPasswordEncoder.calibrate(1, 4, 16));
+        assertEquals(6, CalibratedPasswordEncoder.calibrate(TimeUnit.HOURS.toNanos(1), 4, 6));
+        assertEquals(10, CalibratedPasswordEncoder.calibrate(1, 10, 16));
+    }
+
+    @Test
+    public void testOnlyHashesOutsideTheToleranceAreReencoded() {
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(1, 4, 16, 6, 1);
+        String current = encoder.encode("secret");
+        String oneStronger = new BCryptPasswordEncoder(7).encode("secret");
+        String oneWeaker = new BCryptPasswordEncoder(5).encode("secret");
+        String twoStronger = new BCryptPasswordEncoder(8).encode("secret");
+        String twoWeaker = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(encoder.matches("secret", current));
+        assertTrue(encoder.matches("secret", twoStronger));
+        assertFalse(encoder.upgradeEncoding(current));
+        assertFalse(encoder.upgradeEncoding(oneStronger));
+        assertFalse(encoder.upgradeEncoding(oneWeaker));
+        assertTrue(encoder.upgradeEncoding(twoStronger));
+        assertTrue(encoder.upgradeEncoding(twoWeaker));
+        assertFalse(encoder.upgradeEncoding("{noop}secret"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    public void testPinnedCostOverridesCalibration() {
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(TimeUnit.HOURS.toMillis(1), 4, 16, 5, 0);
+
+        assertEquals(5, encoder.getCost());
+        assertEquals(5, encoder.getMetrics().get("cost"));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.security;
+
+import com.example.model.Permission;
+import com.example.model.Role;
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EndpointPermissionTableTest {
+
+    private final EndpointPermissionTable table = new EndpointPermissionTable(List.of(
+            rule("POST", "/api/users/batch", Permission.READ),
+            rule("GET", "/api/**", Permission.READ),
+            rule("PUT", "/api/users/**", Permission.UPDATE),
+            rule("DELETE", "/api/users/**", Permission.WRITE),
+            rule(null, "/api/**", Permission.READ)));
+
+    @Test
+    public void testFirstMatchingRuleDecides() {
+        assertEquals(Permission.READ.getMask(), table.requiredMask("POST", "/api/users/batch"));
+        assertEquals(Permission.UPDATE.getMask(), table.requiredMask("PUT", "/api/users/42"));
+        assertEquals(Permission.READ.getMask(), table.requiredMask("POST", "/api/users"));
+        assertEquals(0, table.requiredMask("GET", "/health/readiness"));
+    }
+
+    @Test
+    public void testRolesAreCheckedAgainstTheirMask() {
+        assertTrue(table.isAllowed(Role.GUEST, "GET", "/api/users/42"));
+        assertFalse(table.isAllowed(Role.GUEST, "PUT", "/api/users/42"));
+        assertTrue(table.isAllowed(Role.MEMBER, "PUT", "/api/users/42"));
+        assertFalse(table.isAllowed(Role.MEMBER, "DELETE", "/api/users/42"));
+        assertTrue(table.isAllowed(Role.ADMIN, "DELETE", "/api/users/42"));
+        assertFalse(table.isAllowed(null, "DELETE", "/api/users/42"));
+    }
+
+    @Test
+    public void testAuthoritiesArePrecomputedPerRole() {
+        assertSame(Role.ADMIN.getAuthorities(), Role.ADMIN.getAuthorities());
+        assertEquals(Set.of(new SimpleGrantedAuthority("read"), new SimpleGrantedAuthority("update")),
+                Role.MEMBER.getAuthorities());
+        assertThrows(UnsupportedOperationException.class,
+                () -> Role.GUEST.getAuthorities().add(new SimpleGrantedAuthority("write")));
+
+        User user = new User();
+        user.setEmail("admin@example.com");
+        user.setRole(Role.ADMIN);
+        SecurityUser details = (SecurityUser) SecurityUser.fromUser(user);
+        assertEquals(Role.ADMIN, details.getRole());
+        assertSame(Role.ADMIN.getAuthorities(), details.getAuthorities());
+    }
+
+    private static AuthorizationProperties.Rule rule(String method, String pattern, Permission permission) {
+        AuthorizationProperties.Rule rule = new AuthorizationProperties.Rule();
+        rule.setMethod(method);
+        rule.setPattern(pattern);
+        rule.setPermissions(Set.of(permission));
+        return rule;
+    }
+}
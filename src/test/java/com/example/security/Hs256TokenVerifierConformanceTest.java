@@ -0,0 +1,202 @@
+package com.example.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the fast path against jjwt itself: whatever the verifier decides must be what
+ * {@code JwtTokenProvider.validateToken} decided before it existed.
+ */
+public class Hs256TokenVerifierConformanceTest {
+
+    private static final byte[] KEY = "proselyte".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OTHER_KEY = "someone-else".getBytes(StandardCharsets.UTF_8);
+    private static final String HEADER = "{\"alg\":\"HS256\"}";
+
+    private final Hs256TokenVerifier verifier = new Hs256TokenVerifier(KEY);
+    private final long now = System.currentTimeMillis();
+    private final long future = now / 1000 + 3600;
+    private final long past = now / 1000 - 3600;
+
+    @Test
+    public void testTokensIssuedByJjwtTakeTheFastPath() {
+        String valid = jjwt("john@example.com", new Date(future * 1000), null, KEY);
+        String expired = jjwt("john@example.com", new Date(past * 1000), null, KEY);
+        String wrongKey = jjwt("john@example.com", new Date(future * 1000), null, OTHER_KEY);
+        String notYetValid = jjwt("john@example.com", new Date(future * 1000), new Date(future * 1000), KEY);
+
+        assertEquals(Hs256TokenVerifier.Result.ACCEPT, verifier.verify(valid));
+        assertEquals("john@example.com", verifier.subject(valid));
+        assertEquals(Hs256TokenVerifier.Result.REJECT, verifier.verify(expired));
+        assertEquals(Hs256TokenVerifier.Result.REJECT, verifier.verify(wrongKey));
+        assertEquals(Hs256TokenVerifier.Result.REJECT, verifier.verify(notYetValid));
+        for (String token : List.of(valid, expired, wrongKey, notYetValid)) {
+            assertConforms(token);
+        }
+    }
+
+    @Test
+    public void testExpirationBoundaryMatchesJjwt() {
+        String token = craft(HEADER, "{\"exp\":" + future + "}", KEY);
+
+        assertEquals(Hs256TokenVerifier.Result.ACCEPT, verifier.verify(token, future * 1000));
+        assertEquals(Hs256TokenVerifier.Result.REJECT, verifier.verify(token, future * 1000 + 1));
+    }
+
+    @Test
+    public void testCraftedPayloadsConform() {
+        List<String> payloads = List.of(
+                "{\"sub\":\"a@example.com\",\"exp\":" + future + "}",
+                "{\"sub\":\"a@example.com\",\"exp\":" + past + "}",
+                "{ \"sub\" : \"a@example.com\" ,\n\t\"exp\" : " + future + " }",
+                " {\"exp\":" + future + "}",
+                "{\"exp\":" + future + "} ",
+                "{\"exp\":" + future + "}garbage}",
+                "{\"exp\":" + future + ".0}",
+                "{\"exp\":1.7e9}",
+                "{\"exp\":\"" + future + "\"}",
+                "{\"exp\":0" + future + "}",
+                "{\"exp\":" + future + ",\"exp\":" + past + "}",
+                "{\"exp\":" + past + ",\"exp\":" + future + "}",
+                "{\"e\\u0078p\":" + past + ",\"exp\":" + future + "}",
+                "{\"exp\":" + future + ",\"nested\":{\"a\":[1,-2.5e3,{\"b\":null}],\"c\":\"x\\\"y\",\"d\":[true,false]}}",
+                "{\"sub\":\"esc\\u0061ped\",\"exp\":" + future + "}",
+                "{\"sub\":123,\"exp\":" + future + "}",
+                "{\"sub\":\"first\",\"sub\":\"second\",\"exp\":" + future + "}",
+                "{\"nbf\":" + future + ",\"exp\":" + future + "}",
+                "{\"nbf\":" + past + ",\"exp\":" + future + "}",
+                "{\"sub\":\"tab\tinside\",\"exp\":" + future + "}",
+                "{\"sub\":\"ünïcödé\",\"exp\":" + future + "}",
+                "{\"exp\":" + future + ",}",
+                "{\"exp\":" + future + " \"x\":1}",
+                "{\"exp\":99999999999999999999}",
+                "{\"exp\":-1}",
+                "{\"exp\":" + future + ",\"x\":tru}",
+                "{\"exp\":" + future + ",\"x\":[1,]}",
+                "{}",
+                "{\"sub\":\"a@example.com\"}",
+                "[1,2,3]",
+                "not json at all");
+        for (String payload : payloads) {
+            assertConforms(craft(HEADER, payload, KEY));
+            assertConforms(craft(HEADER, payload, OTHER_KEY));
+        }
+    }
+
+    @Test
+    public void testHeadersOtherThanTheCanonicalOneAreLeftToJjwt() {
+        String payload = "{\"sub\":\"a@example.com\",\"exp\":" + future + "}";
+        for (String header : List.of("{\"alg\":\"HS256\",\"typ\":\"JWT\"}", "{ \"alg\":\"HS256\"}",
+                "{\"alg\":\"none\"}", "{\"alg\":\"HS512\"}")) {
+            String token = craft(header, payload, KEY);
+            assertEquals(Hs256TokenVerifier.Result.UNSURE, verifier.verify(token));
+            assertConforms(token);
+        }
+    }
+
+    @Test
+    public void testEncodingVariantsConform() {
+        String token = craft(HEADER, "{\"sub\":\"a@example.com\",\"exp\":" + future + "}", KEY);
+        int signatureStart = token.lastIndexOf('.') + 1;
+        String signature = token.substring(signatureStart);
+        char last = signature.charAt(signature.length() - 1);
+        // The last character carries two unused bits; setting them keeps the decoded bytes but is not canonical.
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        char sloppy = alphabet.charAt(alphabet.indexOf(last) | 1);
+
+        List<String> variants = new ArrayList<>(List.of(
+                token + "=",
+                token.substring(0, signatureStart) + signature.substring(0, signature.length() - 1) + sloppy,
+                token.substring(0, signatureStart - 1),
+                token + ".",
+                token.replace('.', ','),
+                " " + token,
+                token + " ",
+                "Bearer " + token,
+                "",
+                "a.b.c"));
+        for (String variant : variants) {
+            assertConforms(variant);
+        }
+    }
+
+    @Test
+    public void testRandomMutationsConform() {
+        Random random = new Random(7);
+        String token = craft(HEADER, "{\"sub\":\"a@example.com\",\"role\":\"x\",\"exp\":" + future + "}", KEY);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_.=+/ ";
+        for (int i = 0; i < 2000; i++) {
+            char[] chars = token.toCharArray();
+            int mutations = 1 + random.nextInt(3);
+            for (int m = 0; m < mutations; m++) {
+                chars[random.nextInt(chars.length)] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            assertConforms(new String(chars));
+        }
+    }
+
+    private void assertConforms(String token) {
+        Hs256TokenVerifier.Result result = verifier.verify(token);
+        String reference = reference(token);
+        if (result == Hs256TokenVerifier.Result.ACCEPT) {
+            assertEquals("VALID", reference, "fast path accepted " + token);
+            String subject = verifier.subject(token);
+            if (subject != null) {
+                assertEquals(Jwts.parser().setSigningKey(KEY).parseClaimsJws(token).getBody().getSubject(), subject);
+            }
+        } else if (result == Hs256TokenVerifier.Result.REJECT) {
+            assertEquals("INVALID", reference, "fast path rejected " + token);
+        }
+    }
+
+    /**
+     * The decision {@code JwtTokenProvider.validateToken} made with jjwt alone.
+     */
+    private static String reference(String token) {
+        try {
+            Claims claims = Jwts.parser().setSigningKey(KEY).parseClaimsJws(token).getBody();
+            return claims.getExpiration().before(new Date()) ? "INVALID" : "VALID";
+        } catch (JwtException | IllegalArgumentException e) {
+            return "INVALID";
+        } catch (RuntimeException e) {
+            return "ERROR";
+        }
+    }
+
+    private static String jjwt(String subject, Date expiration, Date notBefore, byte[] key) {
+        return Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(expiration)
+                .setNotBefore(notBefore)
+                .signWith(SignatureAlgorithm.HS256, key)
+                .compact();
+    }
+
+    private static String craft(String header, String payload, byte[] key) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String signingInput = encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + '.'
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return signingInput + '.' + encoder.encodeToString(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.security;
+
+import com.example.model.User;
+import com.example.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UserAuthenticationProviderTest {
+
+    @Mock
+    private UserService userService;
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private UserAuthenticationProvider provider;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        provider = new UserAuthenticationProvider(userService, passwordEncoder);
+    }
+
+    @Test
+    public void testAuthenticatesWithOneLookupAndReturnsTheUser() {
+        User user = new User();
+        user.setEmail("valid@example.com");
+        user.setPassword(passwordEncoder.encode("valid_password"));
+        when(userService.findByEmail("valid@example.com")).thenReturn(user);
+
+        Authentication result = provider.authenticate(
+                new UsernamePasswordAuthenticationToken("valid@example.com", "valid_password"));
+
+        assertTrue(result.isAuthenticated());
+        assertSame(user, result.getPrincipal());
+        verify(userService, times(1)).findByEmail("valid@example.com");
+    }
+
+    @Test
+    public void testRejectsWrongPasswordAndUnknownEmail() {
+        User user = new User();
+        user.setEmail("valid@example.com");
+        user.setPassword(passwordEncoder.encode("valid_password"));
+        when(userService.findByEmail("valid@example.com")).thenReturn(user);
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                new UsernamePasswordAuthenticationToken("valid@example.com", "wrong_password")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                new UsernamePasswordAuthenticationToken("unknown@example.com", "valid_password")));
+    }
+}
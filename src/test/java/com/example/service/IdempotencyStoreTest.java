@@ -0,0 +1,94 @@
+package com.example.service;
+
+import com.example.model.IdempotencyRecord;
+import com.example.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyStoreTest {
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        store = new IdempotencyStore(repository);
+        ReflectionTestUtils.setField(store, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(store, "waitTimeoutMillis", 50L);
+        when(repository.findById(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    public void testWaitingForAStuckRequestTimesOut() {
+        store.claim("key");
+        IdempotencyStore.Claim second = store.claim("key");
+
+        assertThrows(TimeoutException.class, second::await);
+    }
+
+    @Test
+    public void testConcurrentClaimsShareOneExecution() throws TimeoutException {
+        IdempotencyStore.Claim first = store.claim("key");
+        IdempotencyStore.Claim second = store.claim("key");
+
+        assertTrue(first.isOwner());
+        assertFalse(second.isOwner());
+
+        IdempotencyRecord record = new IdempotencyRecord("key", 201, "application/json", new byte[]{1}, Instant.now(),
+                "hash");
+        store.complete("key", record);
+
+        assertSame(record, second.await());
+        assertFalse(store.claim("key").isOwner());
+        verify(repository).save(record);
+    }
+
+    @Test
+    public void testAbandonedClaimCanBeRetried() throws TimeoutException {
+        IdempotencyStore.Claim first = store.claim("key");
+        IdempotencyStore.Claim second = store.claim("key");
+
+        store.abandon("key");
+
+        assertNull(second.await());
+        assertTrue(store.claim("key").isOwner());
+        assertTrue(first.isOwner());
+    }
+
+    @Test
+    public void testStoredRecordIsReplayedAfterRestart() throws TimeoutException {
+        IdempotencyRecord record = new IdempotencyRecord("key", 201, null, null, Instant.now(), null);
+        when(repository.findById("key")).thenReturn(Optional.of(record));
+
+        IdempotencyStore.Claim claim = store.claim("key");
+
+        assertFalse(claim.isOwner());
+        assertSame(record, claim.await());
+    }
+
+    @Test
+    public void testExpiredRecordsAreEvicted() {
+        IdempotencyRecord record = new IdempotencyRecord("key", 201, null, null, Instant.now().minusSeconds(120), null);
+        store.claim("key");
+        store.complete("key", record);
+
+        store.evictExpired();
+
+        assertTrue(store.claim("key").isOwner());
+        verify(repository).deleteCreatedBefore(any());
+    }
+}
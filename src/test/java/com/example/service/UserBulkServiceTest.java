@@ -0,0 +1,139 @@
+package com.example.service;
+
+import com.example.dto.UserBulkOperationDTO;
+import com.example.dto.UserBulkRequestDTO;
+import com.example.dto.UserBulkResponseDTO;
+import com.example.dto.UserBulkResultDTO;
+import com.example.model.Role;
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import com.example.writebehind.UserWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The Flyway migrations are PostgreSQL only, so Hibernate creates the schema in an in-memory H2 database instead.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-bulk;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "user.bulk.chunk-size=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UserBulkService.class, UserWriteBehind.class})
+// The service manages its own transactions, one per chunk.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserBulkServiceTest {
+
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testBestEffortAppliesValidOperationsAcrossChunks() {
+        User promoted = userRepository.save(user("promoted@example.com"));
+        User deleted = userRepository.save(user("deleted@example.com"));
+        User kept = userRepository.save(user("kept@example.com"));
+        UUID unknown = UUID.randomUUID();
+
+        UserBulkResponseDTO response = userBulkService.apply(request(UserBulkRequestDTO.Mode.BEST_EFFORT,
+                operation(UserBulkOperationDTO.Type.UPDATE_ROLE, promoted.getId(), Role.ADMIN),
+                operation(UserBulkOperationDTO.Type.DELETE, deleted.getId(), null),
+                operation(UserBulkOperationDTO.Type.DELETE, unknown, null),
+                operation(UserBulkOperationDTO.Type.UPDATE_ROLE, kept.getId(), null),
+                operation(UserBulkOperationDTO.Type.DELETE, promoted.getId(), null)));
+
+        assertEquals(List.of(UserBulkResultDTO.Status.OK, UserBulkResultDTO.Status.OK,
+                UserBulkResultDTO.Status.NOT_FOUND, UserBulkResultDTO.Status.INVALID,
+                UserBulkResultDTO.Status.INVALID), statuses(response));
+        assertEquals(2, response.getSucceeded());
+        assertEquals(Role.ADMIN, userRepository.findById(promoted.getId()).orElseThrow().getRole());
+        assertFalse(userRepository.existsById(deleted.getId()));
+        assertEquals(Role.GUEST, userRepository.findById(kept.getId()).orElseThrow().getRole());
+    }
+
+    @Test
+    public void testAllOrNothingRollsBackEveryChunkWhenOneOperationFails() {
+        User first = userRepository.save(user("first@example.com"));
+        User second = userRepository.save(user("second@example.com"));
+
+        UserBulkResponseDTO response = userBulkService.apply(request(UserBulkRequestDTO.Mode.ALL_OR_NOTHING,
+                operation(UserBulkOperationDTO.Type.UPDATE_ROLE, first.getId(), Role.ADMIN),
+                operation(UserBulkOperationDTO.Type.DELETE, second.getId(), null),
+                operation(UserBulkOperationDTO.Type.DELETE, UUID.randomUUID(), null)));
+
+        assertEquals(List.of(UserBulkResultDTO.Status.ROLLED_BACK, UserBulkResultDTO.Status.ROLLED_BACK,
+                UserBulkResultDTO.Status.NOT_FOUND), statuses(response));
+        assertEquals(0, response.getSucceeded());
+        assertEquals(Role.GUEST, userRepository.findById(first.getId()).orElseThrow().getRole());
+        assertTrue(userRepository.existsById(second.getId()));
+    }
+
+    @Test
+    public void testAllOrNothingAppliesNothingWhenTheSetIsInvalid() {
+        User user = userRepository.save(user("invalid@example.com"));
+
+        UserBulkResponseDTO response = userBulkService.apply(request(UserBulkRequestDTO.Mode.ALL_OR_NOTHING,
+                operation(UserBulkOperationDTO.Type.DELETE, user.getId(), null),
+                operation(null, UUID.randomUUID(), null)));
+
+        assertEquals(List.of(UserBulkResultDTO.Status.SKIPPED, UserBulkResultDTO.Status.INVALID), statuses(response));
+        assertTrue(userRepository.existsById(user.getId()));
+    }
+
+    private static UserBulkRequestDTO request(UserBulkRequestDTO.Mode mode, UserBulkOperationDTO... operations) {
+        UserBulkRequestDTO request = new UserBulkRequestDTO();
+        request.setMode(mode);
+        request.setOperations(List.of(operations));
+        return request;
+    }
+
+    private static UserBulkOperationDTO operation(UserBulkOperationDTO.Type type, UUID id, Role role) {
+        UserBulkOperationDTO operation = new UserBulkOperationDTO();
+        operation.setType(type);
+        operation.setId(id);
+        operation.setRole(role);
+        return operation;
+    }
+
+    private static List<UserBulkResultDTO.Status> statuses(UserBulkResponseDTO response) {
+        List<UserBulkResultDTO.Status> statuses = new ArrayList<>();
+        for (UserBulkResultDTO result : response.getResults()) {
+            statuses.add(result.getStatus());
+        }
+        return statuses;
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail(email);
+        user.setPassword("valid_password");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        user.setRole(Role.GUEST);
+        return user;
+    }
+}
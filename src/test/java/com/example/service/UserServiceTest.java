@@ -1,19 +1,39 @@
 package com.example.service;
 
+import com.example.cache.BirthDateRangeCache;
+import com.example.dto.UserBatchResponseDTO;
+import com.example.dto.UserFilterDTO;
+import com.example.dto.UserPageDTO;
+import com.example.dto.UserSummaryDTO;
 import com.example.exception.BadRequestException;
 import com.example.exception.ResourceNotFoundException;
+import com.example.exception.ValidationException;
 import com.example.model.Role;
 import com.example.model.User;
+import com.example.readmodel.UserReadModel;
 import com.example.repository.UserRepository;
+import com.example.security.SecurityUser;
+import com.example.similarity.SimilarUserIndex;
 import com.example.validator.UserValidator;
+import com.example.validator.ValidationError;
+import com.example.validator.ValidationResult;
+import com.example.writebehind.UserWriteBehind;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,12 +50,33 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserReadModel readModel;
+
+    @Mock
+    private UserWriteBehind writeBehind;
+
+    @Mock
+    private SimilarUserIndex similarUsers;
+
     private UserService userService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        userService = new UserService(userRepository, passwordEncoder, userValidator);
+        userService = new UserService(userRepository, passwordEncoder, userValidator, eventPublisher, readModel,
+                new BirthDateRangeCache(), writeBehind, similarUsers);
+        ReflectionTestUtils.setField(userService, "batchMaxIds", 3);
+        ReflectionTestUtils.setField(userService, "filterMaxPageSize", 2);
+        ReflectionTestUtils.setField(userService, "filterMaxOffset", 10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -47,6 +88,7 @@ public class UserServiceTest {
         user.setPassword("valid_password");
         user.setBirthDate(LocalDate.of(1990, 1, 1));
 
+        when(userValidator.validateSaveEntity(user)).thenReturn(new ValidationResult());
         when(userRepository.save(user)).thenReturn(user);
 
         User createdUser = userService.createUser(user);
@@ -71,6 +113,23 @@ public class UserServiceTest {
         verify(userRepository, never()).save(user);
     }
 
+    @Test
+    public void testCreateUserReturnsStructuredValidationErrors() {
+        User user = new User();
+        user.setEmail("taken@example.com");
+
+        ValidationResult result = new ValidationResult();
+        result.addError(ValidationError.EMAIL_IN_USE);
+        result.addError(ValidationError.AGE_BELOW_LIMIT);
+        when(userValidator.validateSaveEntity(user)).thenReturn(result);
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> userService.createUser(user));
+
+        assertEquals(result.getErrors(), exception.getResult().getErrors());
+        assertEquals(0, exception.getStackTrace().length);
+        verify(userRepository, never()).save(user);
+    }
+
     @Test
     public void testFindUserByIdWithExistingUser() {
         UUID userId = UUID.randomUUID();
@@ -108,9 +167,11 @@ public class UserServiceTest {
         updatedUser.setPassword("updated_password");
         updatedUser.setBirthDate(LocalDate.of(1995, 1, 1));
         updatedUser.setRole(Role.ADMIN);
+        authenticateAs(Role.ADMIN);
 
         when(userRepository.findById(updatedUser.getId())).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(updatedUser)).thenReturn(updatedUser);
+        when(userValidator.validateUpdateEntity(updatedUser, existingUser)).thenReturn(new ValidationResult());
+        when(userRepository.update(updatedUser)).thenReturn(1);
 
         User updated = userService.updateUser(updatedUser);
 
@@ -135,11 +196,38 @@ public class UserServiceTest {
 
         when(userRepository.findById(updatedUser.getId())).thenReturn(Optional.of(existingUser));
 
-        doThrow(BadRequestException.class).when(userValidator).validateUpdateEntity(updatedUser);
+        doThrow(BadRequestException.class).when(userValidator).validateUpdateEntity(updatedUser, existingUser);
 
         assertThrows(BadRequestException.class, () -> userService.updateUser(updatedUser));
 
-        verify(userRepository, never()).save(updatedUser);
+        verify(userRepository, never()).update(updatedUser);
+    }
+
+    @Test
+    public void testUpdateUserInWriteBehindModeQueuesInsteadOfSaving() {
+        User existingUser = new User();
+        existingUser.setId(UUID.randomUUID());
+        existingUser.setEmail("existing@example.com");
+        existingUser.setFirstName("Queued");
+
+        User updatedUser = new User();
+        updatedUser.setId(existingUser.getId());
+        updatedUser.setLastName("UpdatedLastName");
+
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(writeBehind.hasPending()).thenReturn(true);
+        when(writeBehind.pending(existingUser.getId())).thenReturn(Optional.of(existingUser));
+        User storedUser = new User();
+        storedUser.setId(existingUser.getId());
+        when(userRepository.findById(existingUser.getId())).thenReturn(Optional.of(storedUser));
+        when(userValidator.validateUpdateEntity(updatedUser, existingUser)).thenReturn(new ValidationResult());
+
+        User updated = userService.updateUser(updatedUser);
+
+        assertEquals("Queued", updated.getFirstName());
+        assertEquals("UpdatedLastName", updated.getLastName());
+        verify(writeBehind).enqueue(updatedUser);
+        verify(userRepository, never()).update(any());
     }
 
     @Test
@@ -151,4 +239,183 @@ public class UserServiceTest {
 
         assertThrows(ResourceNotFoundException.class, () -> userService.updateUser(updatedUser));
     }
+
+    @Test
+    public void testGetUsersByIdsKeepsRequestOrderAndReportsMissing() {
+        User first = new User();
+        User second = new User();
+        UUID missingId = UUID.randomUUID();
+
+        when(userRepository.findAllById(Set.of(first.getId(), missingId, second.getId())))
+                .thenReturn(List.of(first, second));
+
+        UserBatchResponseDTO response = userService.getUsersByIds(
+                List.of(second.getId(), missingId, first.getId(), second.getId()));
+
+        assertEquals(List.of(second, first), response.getUsers());
+        assertEquals(List.of(missingId), response.getMissing());
+        verify(userRepository, times(1)).findAllById(anyIterable());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testGetUsersByIdsRejectsTooManyIds() {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        assertThrows(BadRequestException.class, () -> userService.getUsersByIds(ids));
+
+        verify(userRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    public void testBirthDateRangeIsServedFromReadModelOnceLoaded() {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(1999, 12, 31);
+        List<User> users = List.of(new User());
+
+        when(readModel.isReady()).thenReturn(true);
+        when(readModel.findByBirthDateBetween(from, to)).thenReturn(users);
+
+        assertEquals(users, userService.findUsersByBirthDateRange(from, to));
+        verify(userRepository, never()).findByBirthDateBetween(any(), any());
+    }
+
+    @Test
+    public void testFilterFetchesOneExtraRowToDetectNextPage() {
+        UserFilterDTO filter = new UserFilterDTO();
+        filter.setNamePrefix("Do");
+        filter.setRole(Role.GUEST);
+        filter.setSize(2);
+        filter.setPage(1);
+        List<UserSummaryDTO> rows = List.of(summary(), summary(), summary());
+
+        when(userRepository.findSummaries(any(), any(), eq(2), eq(3))).thenReturn(rows);
+
+        UserPageDTO page = userService.filterUsers(filter);
+
+        assertEquals(rows.subList(0, 2), page.getUsers());
+        assertTrue(page.isHasNext());
+    }
+
+    @Test
+    public void testFilterRejectsUnindexedAndUnboundedRequests() {
+        UserFilterDTO roleOnly = new UserFilterDTO();
+        roleOnly.setRole(Role.GUEST);
+        UserFilterDTO openRange = new UserFilterDTO();
+        openRange.setFrom(LocalDate.of(1990, 1, 1));
+        UserFilterDTO domainOnly = new UserFilterDTO();
+        domainOnly.setEmailDomain("gmail.com");
+        UserFilterDTO tooDeep = new UserFilterDTO();
+        tooDeep.setEmailDomain("example.com");
+        tooDeep.setNamePrefix("Do");
+        tooDeep.setSize(2);
+        tooDeep.setPage(6);
+        UserFilterDTO badSort = new UserFilterDTO();
+        badSort.setEmailDomain("example.com");
+        badSort.setNamePrefix("Do");
+        badSort.setSort("password");
+
+        assertThrows(BadRequestException.class, () -> userService.filterUsers(roleOnly));
+        assertThrows(BadRequestException.class, () -> userService.filterUsers(openRange));
+        assertThrows(BadRequestException.class, () -> userService.filterUsers(domainOnly));
+        assertThrows(BadRequestException.class, () -> userService.filterUsers(tooDeep));
+        assertThrows(BadRequestException.class, () -> userService.filterUsers(badSort));
+        verify(userRepository, never()).findSummaries(any(), any(), anyInt(), anyInt());
+    }
+
+    private static UserSummaryDTO summary() {
+        return new UserSummaryDTO(UUID.randomUUID(), "john@example.com", "John", "Doe", LocalDate.of(1990, 1, 1),
+                Role.GUEST);
+    }
+
+    @Test
+    public void testPasswordIsRehashedOnlyWhenEncodingIsOutdated() {
+        User user = new User();
+        user.setPassword("$2a$12$outdated");
+        when(passwordEncoder.upgradeEncoding("$2a$12$outdated")).thenReturn(true);
+        when(passwordEncoder.encode("valid_password")).thenReturn("$2a$10$current");
+        when(userRepository.replacePasswordHash(user.getId(), "$2a$12$outdated", "$2a$10$current")).thenReturn(1);
+
+        assertTrue(userService.rehashPasswordIfNeeded(user, "valid_password"));
+
+        user.setPassword("$2a$10$current");
+        assertFalse(userService.rehashPasswordIfNeeded(user, "valid_password"));
+        verify(userRepository, times(1)).replacePasswordHash(any(), any(), any());
+    }
+
+    @Test
+    public void testRegistrationRescoresCandidatesAgainstCurrentRows() {
+        ReflectionTestUtils.setField(userService, "registrationCheck", true);
+        ReflectionTestUtils.setField(userService, "registrationThreshold", 0.6);
+        User user = new User();
+        user.setPassword("valid_password");
+        User stale = new User();
+        User duplicate = new User();
+        when(similarUsers.isEnabled()).thenReturn(true);
+        when(similarUsers.findSimilar(user, 10, 0.6))
+                .thenReturn(List.of(new SimilarUserIndex.Match(stale.getId(), 0.9)));
+        when(userRepository.findAllById(any())).thenReturn(List.of(stale));
+        when(similarUsers.similarity(user, stale)).thenReturn(0.1);
+        when(userValidator.validateSaveEntity(user)).thenReturn(new ValidationResult());
+        when(userRepository.save(user)).thenReturn(user);
+
+        assertSame(user, userService.register(user), "an index entry that no longer resembles its row does not block");
+
+        when(similarUsers.findSimilar(user, 10, 0.6))
+                .thenReturn(List.of(new SimilarUserIndex.Match(duplicate.getId(), 0.9)));
+        when(userRepository.findAllById(any())).thenReturn(List.of(duplicate));
+        when(similarUsers.similarity(user, duplicate)).thenReturn(0.8);
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> userService.register(user));
+        assertTrue(exception.getResult().getErrors().contains(ValidationError.POSSIBLE_DUPLICATE));
+    }
+
+    @Test
+    public void testNewUsersAreGuestsWhateverRoleTheyAsked() {
+        User user = new User();
+        user.setEmail("new@example.com");
+        user.setPassword("valid_password");
+        user.setRole(Role.ADMIN);
+        when(passwordEncoder.encode("valid_password")).thenReturn("hash");
+        when(userValidator.validateSaveEntity(user)).thenReturn(new ValidationResult());
+        when(userRepository.save(user)).thenReturn(user);
+
+        assertEquals(Role.GUEST, userService.register(user).getRole());
+
+        user.setRole(Role.ADMIN);
+        authenticateAs(Role.ADMIN);
+        assertEquals(Role.GUEST, userService.createUser(user).getRole());
+    }
+
+    @Test
+    public void testRoleChangeRequiresWritePermission() {
+        User existingUser = new User();
+        existingUser.setEmail("member@example.com");
+        existingUser.setRole(Role.MEMBER);
+        when(userRepository.findById(existingUser.getId())).thenReturn(Optional.of(existingUser));
+        when(userValidator.validateUpdateEntity(any(), eq(existingUser))).thenReturn(new ValidationResult());
+        when(userRepository.update(any(User.class))).thenReturn(1);
+
+        User unchanged = new User();
+        unchanged.setId(existingUser.getId());
+        unchanged.setRole(Role.MEMBER);
+        unchanged.setFirstName("Renamed");
+        authenticateAs(Role.MEMBER);
+        assertEquals("Renamed", userService.updateUser(unchanged).getFirstName());
+
+        User promoted = new User();
+        promoted.setId(existingUser.getId());
+        promoted.setRole(Role.ADMIN);
+        assertThrows(AccessDeniedException.class, () -> userService.updateUser(promoted));
+        verify(userRepository, never()).update(promoted);
+
+        authenticateAs(Role.ADMIN);
+        assertEquals(Role.ADMIN, userService.updateUser(promoted).getRole());
+    }
+
+    private static void authenticateAs(Role role) {
+        SecurityUser principal = new SecurityUser(role.name().toLowerCase() + "@example.com", "hash", role, true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
 }
@@ -0,0 +1,89 @@
+package com.example.service;
+
+import com.example.dto.UserStatisticsDTO;
+import com.example.event.UserChangeEvent;
+import com.example.model.Role;
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UserStatisticsTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserStatistics userStatistics;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userStatistics = new UserStatistics(userRepository);
+        ReflectionTestUtils.setField(userStatistics, "userAgeLimit", 18);
+    }
+
+    @Test
+    public void testReconcileBuildsCountsFromDatabase() {
+        LocalDate today = LocalDate.now();
+        when(userRepository.countByRoleAndBirthDate()).thenReturn(List.of(
+                new Object[]{Role.ADMIN, today.minusYears(30), 2L},
+                new Object[]{null, today.minusYears(70), 1L}));
+
+        userStatistics.reconcile();
+        UserStatisticsDTO statistics = userStatistics.getStatistics();
+
+        assertEquals(3, statistics.getTotal());
+        assertEquals(2L, statistics.getByRole().get("ADMIN"));
+        assertEquals(1L, statistics.getByRole().get("UNASSIGNED"));
+        assertEquals(2L, statistics.getByAgeBucket().get("25-34"));
+        assertEquals(1L, statistics.getByAgeBucket().get("65+"));
+    }
+
+    @Test
+    public void testCountersFollowUserChanges() {
+        LocalDate today = LocalDate.now();
+        User user = user(Role.MEMBER, today.minusYears(20));
+        User updated = user(Role.ADMIN, today.minusYears(40));
+
+        userStatistics.onUserChange(UserChangeEvent.created(user));
+        assertEquals(1L, userStatistics.getStatistics().getByAgeBucket().get("18-24"));
+
+        userStatistics.onUserChange(UserChangeEvent.updated(user, updated));
+        UserStatisticsDTO statistics = userStatistics.getStatistics();
+        assertEquals(0L, statistics.getByRole().get("MEMBER"));
+        assertEquals(1L, statistics.getByRole().get("ADMIN"));
+        assertEquals(0L, statistics.getByAgeBucket().get("18-24"));
+        assertEquals(1L, statistics.getByAgeBucket().get("35-44"));
+
+        userStatistics.onUserChange(UserChangeEvent.deleted(updated));
+        assertEquals(0, userStatistics.getStatistics().getTotal());
+    }
+
+    @Test
+    public void testBirthdayMovesUserToNextBucket() {
+        LocalDate today = LocalDate.now();
+        userStatistics.onUserChange(UserChangeEvent.created(user(Role.GUEST, today.minusYears(25))));
+        userStatistics.onUserChange(UserChangeEvent.created(user(Role.GUEST, today.minusYears(25).plusDays(1))));
+
+        UserStatisticsDTO statistics = userStatistics.getStatistics();
+
+        assertEquals(1L, statistics.getByAgeBucket().get("18-24"));
+        assertEquals(1L, statistics.getByAgeBucket().get("25-34"));
+    }
+
+    private User user(Role role, LocalDate birthDate) {
+        User user = new User();
+        user.setRole(role);
+        user.setBirthDate(birthDate);
+        return user;
+    }
+}
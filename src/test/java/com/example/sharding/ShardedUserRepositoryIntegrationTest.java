@@ -0,0 +1,174 @@
+package com.example.sharding;
+
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The Flyway migrations are PostgreSQL only, so every shard creates the same tables from an H2 script instead.
+@DataJpaTest(properties = {
+        "sharding.enabled=true",
+        "sharding.shards[0].url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/h2/sharded-schema.sql'",
+        "sharding.shards[0].username=sa",
+        "sharding.shards[1].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/h2/sharded-schema.sql'",
+        "sharding.shards[1].username=sa",
+        "sharding.shards[2].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/h2/sharded-schema.sql'",
+        "sharding.shards[2].username=sa",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ShardingConfiguration.class)
+// Routing happens per repository call, so the test must not wrap everything in one transaction.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ShardedUserRepositoryIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testUsersAreSpreadAcrossShardsByIdHash() {
+        List<User> users = saveUsers(30);
+
+        long total = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            long count = countOn(shard);
+            assertTrue(count > 0, "shard " + shard + " should hold some users");
+            total += count;
+        }
+        assertEquals(30, total);
+
+        for (User user : users) {
+            int shard = shardRouter.shardFor(user.getId());
+            Long stored = new JdbcTemplate(shardRouter.getDataSource(shard))
+                    .queryForObject("select count(*) from users where id = ?", Long.class, user.getId());
+            assertEquals(1L, stored);
+            assertTrue(userRepository.findById(user.getId()).isPresent());
+        }
+    }
+
+    @Test
+    public void testEmailLookupsGoThroughDirectory() {
+        User user = saveUsers(1).get(0);
+
+        assertTrue(userRepository.existsByEmail(user.getEmail()));
+        assertEquals(user.getId(), userRepository.findByEmail(user.getEmail()).getId());
+        assertNull(userRepository.findByEmail("missing@example.com"));
+
+        User duplicate = user("Other", user.getEmail(), LocalDate.of(1990, 1, 1));
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.save(duplicate));
+
+        userRepository.deleteById(user.getId());
+        assertFalse(userRepository.existsByEmail(user.getEmail()));
+    }
+
+    @Test
+    public void testScatterGatherQueriesMergeAllShards() {
+        List<User> users = saveUsers(20);
+
+        assertEquals(20, userRepository.findAll().size());
+        assertEquals(20, userRepository.count());
+
+        List<User> inRange = userRepository.findByBirthDateBetween(LocalDate.of(1980, 1, 5), LocalDate.of(1980, 1, 14));
+        assertEquals(10, inRange.size());
+        for (int i = 1; i < inRange.size(); i++) {
+            assertFalse(inRange.get(i).getBirthDate().isBefore(inRange.get(i - 1).getBirthDate()));
+        }
+
+        List<UUID> ids = List.of(users.get(0).getId(), users.get(7).getId(), UUID.randomUUID());
+        assertEquals(2, userRepository.findAllById(ids).size());
+    }
+
+    @Test
+    public void testSaveAllAndDeleteAllByIdAreSplitByShard() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            users.add(user("Batch" + i, UUID.randomUUID() + "@example.com", LocalDate.of(1985, 1, 1).plusDays(i)));
+        }
+
+        assertEquals(12, userRepository.saveAll(users).size());
+        assertEquals(12, userRepository.count());
+        assertTrue(userRepository.existsByEmail(users.get(3).getEmail()));
+
+        List<UUID> ids = List.of(users.get(0).getId(), users.get(1).getId(), users.get(2).getId(), users.get(3).getId());
+        userRepository.deleteAllById(ids);
+
+        assertEquals(8, userRepository.count());
+        assertFalse(userRepository.existsByEmail(users.get(3).getEmail()));
+        assertTrue(userRepository.findAllById(ids).isEmpty());
+    }
+
+    @Test
+    public void testPagedFindAllMergesShardsInRequestedOrder() {
+        List<User> users = saveUsers(15);
+
+        Page<User> page = userRepository.findAll(PageRequest.of(1, 4, Sort.by("birthDate")));
+
+        assertEquals(15, page.getTotalElements());
+        assertEquals(4, page.getContent().size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(users.get(4 + i).getId(), page.getContent().get(i).getId());
+        }
+    }
+
+    @Test
+    public void testUnroutableRepositoryMethodsAreRejectedAtStartup() {
+        assertThrows(IllegalStateException.class, () -> ShardingRepositoryAspect.validate(StreamingRepository.class));
+        ShardingRepositoryAspect.validate(UserRepository.class);
+    }
+
+    interface StreamingRepository {
+        Stream<User> streamByLastName(String lastName);
+    }
+
+    private List<User> saveUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(userRepository.save(user("User" + i, UUID.randomUUID() + "@example.com",
+                    LocalDate.of(1980, 1, 1).plusDays(i))));
+        }
+        return users;
+    }
+
+    private long countOn(int shard) {
+        return new JdbcTemplate(shardRouter.getDataSource(shard)).queryForObject("select count(*) from users", Long.class);
+    }
+
+    private User user(String firstName, String email, LocalDate birthDate) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setLastName("Sharded");
+        user.setEmail(email);
+        user.setBirthDate(birthDate);
+        return user;
+    }
+}
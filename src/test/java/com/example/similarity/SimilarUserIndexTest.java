@@ -0,0 +1,144 @@
+package com.example.similarity;
+
+import com.example.event.UserChangeEvent;
+import com.example.model.Role;
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class SimilarUserIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimilarUserIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new SimilarUserIndex(userRepository);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "bands", 12);
+        ReflectionTestUtils.setField(index, "rows", 3);
+        ReflectionTestUtils.setField(index, "threshold", 0.5);
+        ReflectionTestUtils.setField(index, "maxUsers", 3);
+        ReflectionTestUtils.setField(index, "maxCandidates", 1000);
+        index.init();
+    }
+
+    @Test
+    public void testFindsNearDuplicatesButNotUnrelatedUsers() {
+        User original = user("J\u00fcrgen", "M\u00fcller", "juergen.mueller@example.com", "+49 151 2345 6789");
+        User unrelated = user("Alice", "Smith", "alice@example.org", "555-0100");
+        index.add(original);
+        index.add(unrelated);
+
+        User probe = user("Jurgen", "Muller", "juergenmueller+signup@example.net", "0151 23456789");
+        List<SimilarUserIndex.Match> matches = index.findSimilar(probe, 10, 0.5);
+
+        assertEquals(1, matches.size());
+        assertEquals(original.getId(), matches.get(0).getId());
+        assertTrue(index.similarity(original, probe) >= 0.5);
+        assertTrue(index.findSimilar(original, 10, 0.5).isEmpty(), "the probe itself is left out");
+    }
+
+    @Test
+    public void testChangesReplaceIndexedEntries() {
+        User original = user("Maria", "Garcia", "maria.garcia@example.com", "600111222");
+        index.add(original);
+        User renamed = user("Olga", "Ivanova", "olga.ivanova@example.com", "600999888");
+        renamed.setId(original.getId());
+
+        index.onUserChange(UserChangeEvent.updated(original, renamed));
+
+        assertTrue(index.findSimilar(user("Maria", "Garcia", "mgarcia@example.com", "600111222"), 10, 0.5).isEmpty());
+        assertEquals(1, index.findSimilar(user("Olga", "Ivanova", "olga.ivanova@example.org", null), 10, 0.3).size());
+
+        index.onUserChange(UserChangeEvent.deleted(renamed));
+
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testStopsGrowingAtMaxUsers() {
+        for (int i = 0; i < 5; i++) {
+            index.add(user("Name" + i, "Surname" + i, "user" + i + "@example.com", null));
+        }
+
+        assertEquals(3, index.size());
+        assertEquals(2L, index.getMetrics().get("rejectedFull"));
+    }
+
+    @Test
+    public void testDeadEntriesAreReclaimedWhenFull() {
+        User first = user("Anna", "Novak", "anna.novak@example.com", null);
+        index.add(first);
+        index.add(user("Boris", "Petrov", "boris.petrov@example.com", null));
+        index.add(user("Clara", "Schmidt", "clara.schmidt@example.com", null));
+        User renamed = user("Daria", "Kowalska", "daria.kowalska@example.com", null);
+        renamed.setId(first.getId());
+
+        index.onUserChange(UserChangeEvent.updated(first, renamed));
+
+        assertEquals(3, index.size());
+        assertEquals(0L, index.getMetrics().get("rejectedFull"));
+        assertEquals(0, index.getMetrics().get("deadEntries"));
+        assertEquals(1L, index.getMetrics().get("compactions"));
+        assertEquals(first.getId(),
+                index.findSimilar(user("Daria", "Kowalska", "daria.kowalska@example.org", null), 10, 0.3).get(0).getId());
+    }
+
+    @Test
+    public void testUpdatesOfUnhashedFieldsAreNotReindexed() {
+        User original = user("Maria", "Garcia", "maria.garcia@example.com", "600111222");
+        index.add(original);
+        User promoted = user("Maria", "Garcia", "maria.garcia@example.com", "600111222");
+        promoted.setId(original.getId());
+        promoted.setRole(Role.ADMIN);
+
+        index.onUserChange(UserChangeEvent.updated(original, promoted));
+
+        assertEquals(1, index.size());
+        assertEquals(0, index.getMetrics().get("deadEntries"));
+    }
+
+    @Test
+    public void testLoadSkipsUsersChangedWhileItRuns() {
+        User deleted = user("Maria", "Garcia", "maria.garcia@example.com", "600111222");
+        deleted.setBirthDate(LocalDate.of(1990, 1, 1));
+        List<Object[]> counts = new ArrayList<>();
+        counts.add(new Object[]{Role.GUEST, deleted.getBirthDate(), 1L});
+        when(userRepository.countByRoleAndBirthDate()).thenReturn(counts);
+        when(userRepository.findByBirthDateBetween(deleted.getBirthDate(), deleted.getBirthDate())).thenAnswer(invocation -> {
+            // Deleted after the window was read, but before the loader indexed it.
+            index.onUserChange(UserChangeEvent.deleted(deleted));
+            return List.of(deleted);
+        });
+
+        index.loadAll();
+
+        assertEquals(0, index.size());
+    }
+
+    private static User user(String firstName, String lastName, String email, String phoneNumber) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        user.setPhoneNumber(phoneNumber);
+        return user;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.stream;
+
+import com.example.dto.UserChangeMessageDTO;
+import com.example.event.UserChangeEvent;
+import com.example.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserChangeStreamTest {
+
+    private UserChangeStream stream;
+
+    @BeforeEach
+    public void setUp() {
+        stream = new UserChangeStream();
+        ReflectionTestUtils.setField(stream, "replaySize", 8);
+        // Long enough that only the test triggers flushes and heartbeats.
+        ReflectionTestUtils.setField(stream, "batchWindow", 60_000L);
+        ReflectionTestUtils.setField(stream, "maxLag", 4);
+        ReflectionTestUtils.setField(stream, "timeout", 60_000L);
+        ReflectionTestUtils.setField(stream, "heartbeatInterval", 60_000L);
+        stream.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stream.destroy();
+    }
+
+    @Test
+    public void testBurstIsSentAsOneBatch() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        publish(2);
+        stream.subscribe(null, emitter);
+        publish(3);
+
+        stream.flush();
+
+        List<UserChangeMessageDTO> batch = emitter.awaitBatch(0);
+        assertEquals(List.of(3L, 4L, 5L), batch.stream().map(UserChangeMessageDTO::getSequence).toList());
+        assertEquals(1, emitter.events.size());
+    }
+
+    @Test
+    public void testResumesFromLastEventId() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        stream.subscribe(null, first);
+        publish(2);
+        stream.flush();
+        first.awaitBatch(0);
+        String lastEventId = first.ids.get(0);
+        publish(3);
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        stream.subscribe(lastEventId, resumed);
+        stream.flush();
+
+        List<UserChangeMessageDTO> batch = resumed.awaitBatch(0);
+        assertEquals(List.of(3L, 4L, 5L), batch.stream().map(UserChangeMessageDTO::getSequence).toList());
+    }
+
+    @Test
+    public void testUnknownPositionReceivesResetEvent() throws Exception {
+        publish(20);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        stream.subscribe("0-1", emitter);
+
+        assertEquals(UserChangeStream.RESET_EVENT, emitter.names.get(0));
+        assertEquals(1L, stream.getMetrics().get("resets"));
+    }
+
+    @Test
+    public void testSlowSubscriberIsDropped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        stream.subscribe(null, slow);
+        publish(1);
+        stream.flush();
+        slow.sendStarted.await();
+
+        publish(5);
+        stream.flush();
+        release.countDown();
+
+        assertEquals(1L, stream.getMetrics().get("droppedSubscribers"));
+        assertEquals(0, stream.getMetrics().get("subscribers"));
+    }
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setBirthDate(LocalDate.of(1990, 1, 1));
+            stream.onUserChange(UserChangeEvent.created(user));
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<List<UserChangeMessageDTO>> events = new CopyOnWriteArrayList<>();
+        private final List<String> ids = new CopyOnWriteArrayList<>();
+        private final List<String> names = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        private RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder builder) {
+            sendStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Set<DataWithMediaType> items = builder.build();
+            for (DataWithMediaType item : items) {
+                Object data = item.getData();
+                if (data instanceof List) {
+                    events.add((List<UserChangeMessageDTO>) data);
+                } else if (data instanceof String) {
+                    for (String line : ((String) data).split("\n")) {
+                        if (line.startsWith("id:")) {
+                            ids.add(line.substring(3));
+                        } else if (line.startsWith("event:")) {
+                            names.add(line.substring(6));
+                        }
+                    }
+                }
+            }
+        }
+
+        private List<UserChangeMessageDTO> awaitBatch(int index) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (events.size() <= index && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(events.size() > index, "no batch was sent");
+            return events.get(index);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.timing;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Asserts how many SQL statements Hibernate issues on the calling thread while running an action.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static <T> T assertQueryCount(int expected, Supplier<T> action) {
+        QueryCounter.reset();
+        T result = action.get();
+        assertEquals(expected, QueryCounter.get(), "unexpected number of SQL statements");
+        return result;
+    }
+
+    public static void assertQueryCount(int expected, Runnable action) {
+        assertQueryCount(expected, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServerTimingTest {
+
+    @AfterEach
+    public void tearDown() {
+        ServerTiming.end();
+    }
+
+    @Test
+    public void testHeaderListsRecordedMetricsWithQueryCount() {
+        ServerTiming timing = ServerTiming.begin();
+
+        ServerTiming.stop(ServerTiming.JWT, ServerTiming.start());
+        ServerTiming.stop(ServerTiming.DB, ServerTiming.start());
+        ServerTiming.stop(ServerTiming.DB, ServerTiming.start());
+        ServerTiming.countQuery();
+        ServerTiming.countQuery();
+        ServerTiming.serializationStarted();
+
+        String header = timing.toHeaderValue();
+
+        assertTrue(header.matches("jwt;dur=\\d+\\.\\d{3}, db;dur=\\d+\\.\\d{3};desc=\"2 queries\", "
+                + "serialization;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}"), header);
+    }
+
+    @Test
+    public void testCallsOutsideRequestAreIgnored() {
+        ServerTiming.stop(ServerTiming.DB, ServerTiming.start());
+        ServerTiming.countQuery();
+
+        assertEquals("value", ServerTiming.time(ServerTiming.AUTH, () -> "value"));
+
+        ServerTiming timing = ServerTiming.begin();
+        assertEquals(0, timing.getQueries());
+        assertTrue(timing.toHeaderValue().startsWith("total;dur="));
+    }
+}
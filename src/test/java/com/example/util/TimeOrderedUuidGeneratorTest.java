@@ -0,0 +1,47 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    public void testIdsAreVersion7AndIetfVariant() {
+        UUID id = TimeOrderedUuidGenerator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    public void testIdsAreMonotonicWithinThread() {
+        UUID previous = TimeOrderedUuidGenerator.next();
+        Set<UUID> seen = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = TimeOrderedUuidGenerator.next();
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+                    "ids must strictly increase");
+            assertTrue(seen.add(next));
+            previous = next;
+        }
+    }
+
+    @Test
+    public void testTimestampMatchesCurrentTime() throws InterruptedException {
+        // A fresh thread, because bursts may legitimately borrow a few milliseconds ahead of the clock.
+        UUID[] id = new UUID[1];
+        long before = System.currentTimeMillis();
+        Thread thread = new Thread(() -> id[0] = TimeOrderedUuidGenerator.next());
+        thread.start();
+        thread.join();
+
+        long millis = id[0].getMostSignificantBits() >>> 16;
+
+        assertTrue(millis >= before && millis <= System.currentTimeMillis() + 1);
+    }
+}
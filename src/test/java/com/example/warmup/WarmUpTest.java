@@ -0,0 +1,90 @@
+package com.example.warmup;
+
+import com.example.repository.UserRepository;
+import com.example.security.JwtTokenProvider;
+import com.example.service.UserService;
+import com.example.validator.UserValidator;
+import com.example.validator.ValidationResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class WarmUpTest {
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private UserValidator userValidator;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private WarmUpProperties properties;
+    private WarmUp warmUp;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new WarmUpProperties();
+        properties.setIterations(5);
+        properties.setDuration(60_000);
+        properties.setPasswordHashes(1);
+        properties.setSearchRanges(List.of("1990-01-01/1999-12-31"));
+        warmUp = new WarmUp(properties, jwtTokenProvider, userValidator, new ObjectMapper().registerModule(new JavaTimeModule()),
+                userRepository, userService, passwordEncoder);
+        when(jwtTokenProvider.createToken(anyString(), anyString())).thenReturn("token");
+        when(userValidator.validateSaveEntity(any())).thenReturn(new ValidationResult());
+    }
+
+    @Test
+    public void testRunsIterationBudgetThenFillsCachesAndBecomesReady() {
+        assertFalse(warmUp.isReady());
+
+        warmUp.run();
+
+        assertTrue(warmUp.isReady());
+        verify(jwtTokenProvider, times(5)).validateToken("token");
+        verify(userRepository, times(5)).findByEmail(anyString());
+        verify(passwordEncoder, times(1)).encode(anyString());
+        verify(userService).findUsersByBirthDateRange(LocalDate.of(1990, 1, 1), LocalDate.of(1999, 12, 31));
+        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).deleteById(any());
+    }
+
+    @Test
+    public void testFailingStepStillEndsInReadiness() {
+        when(userRepository.findByEmail(anyString())).thenThrow(new IllegalStateException("database is down"));
+
+        warmUp.run();
+
+        assertTrue(warmUp.isReady());
+        assertEquals(0L, warmUp.getMetrics().get("iterations"));
+    }
+
+    @Test
+    public void testDisabledWarmUpIsReadyImmediately() {
+        properties.setEnabled(false);
+
+        warmUp.start();
+
+        assertTrue(warmUp.isReady());
+        verifyNoInteractions(jwtTokenProvider);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.writebehind;
+
+import com.example.event.UsersFlushedEvent;
+import com.example.model.Role;
+import com.example.model.User;
+import com.example.sharding.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class UserWriteBehindTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testJournalReplaysAppendedUsers() throws IOException {
+        Path path = directory.resolve("journal.log");
+        User first = user("first@example.com", "First");
+        User second = user("second@example.com", null);
+        try (WriteBehindJournal journal = new WriteBehindJournal(path)) {
+            journal.append(first);
+            journal.append(second);
+        }
+
+        List<User> replayed;
+        try (WriteBehindJournal journal = new WriteBehindJournal(path)) {
+            replayed = journal.readAll();
+        }
+
+        assertEquals(2, replayed.size());
+        assertEquals(first.getId(), replayed.get(0).getId());
+        assertEquals("First", replayed.get(0).getFirstName());
+        assertEquals(LocalDate.of(1990, 1, 1), replayed.get(0).getBirthDate());
+        assertEquals(Role.MEMBER, replayed.get(0).getRole());
+        assertNull(replayed.get(1).getFirstName());
+        assertEquals("example.com", replayed.get(1).getEmailDomain());
+    }
+
+    @Test
+    public void testJournalStopsAtTornRecord() throws IOException {
+        Path path = directory.resolve("journal.log");
+        try (WriteBehindJournal journal = new WriteBehindJournal(path)) {
+            journal.append(user("kept@example.com", "Kept"));
+            journal.append(user("torn@example.com", "Torn"));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (WriteBehindJournal journal = new WriteBehindJournal(path)) {
+            List<User> replayed = journal.readAll();
+
+            assertEquals(1, replayed.size());
+            assertEquals("Kept", replayed.get(0).getFirstName());
+        }
+    }
+
+    @Test
+    public void testRewriteKeepsOnlyGivenUsers() throws IOException {
+        Path path = directory.resolve("journal.log");
+        User waiting = user("waiting@example.com", "Waiting");
+        try (WriteBehindJournal journal = new WriteBehindJournal(path)) {
+            journal.append(user("flushed@example.com", "Flushed"));
+            journal.rewrite(List.of(waiting));
+            journal.append(user("later@example.com", "Later"));
+
+            List<User> replayed = journal.readAll();
+
+            assertEquals(2, replayed.size());
+            assertEquals(waiting.getId(), replayed.get(0).getId());
+            assertEquals("Later", replayed.get(1).getFirstName());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlushAnnouncesUsersOnlyOnceTheirRowsAreWritten() throws IOException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:write-behind;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table users (id uuid primary key, first_name varchar(255), "
+                + "last_name varchar(255), birth_date date, address varchar(255), phone_number varchar(255), "
+                + "password varchar(255), role varchar(32))");
+        User user = user("flushed@example.com", "Before");
+        jdbcTemplate.update("insert into users (id, first_name) values (?, ?)", user.getId(), "Before");
+        ObjectProvider<ShardRouter> noSharding = mock(ObjectProvider.class);
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        doAnswer(invocation -> {
+            assertEquals("After", jdbcTemplate.queryForObject("select first_name from users where id = ?",
+                    String.class, user.getId()));
+            return null;
+        }).when(events).publishEvent(any(Object.class));
+        UserWriteBehind writeBehind = new UserWriteBehind(dataSource, noSharding, events);
+        try (WriteBehindJournal journal = new WriteBehindJournal(directory.resolve("journal.log"))) {
+            ReflectionTestUtils.setField(writeBehind, "journal", journal);
+            user.setFirstName("After");
+            writeBehind.enqueue(user);
+
+            writeBehind.flush();
+
+            ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+            verify(events).publishEvent(published.capture());
+            assertEquals(Set.of(user.getId()), ((UsersFlushedEvent) published.getValue()).getUserIds());
+            assertFalse(writeBehind.hasPending());
+        } finally {
+            jdbcTemplate.execute("drop table users");
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRelativeJournalIsRejectedWhenEnabled() {
+        UserWriteBehind writeBehind = new UserWriteBehind(new DriverManagerDataSource(),
+                mock(ObjectProvider.class), mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(writeBehind, "enabled", true);
+        ReflectionTestUtils.setField(writeBehind, "journalPath", "write-behind/journal.log");
+
+        assertThrows(IllegalStateException.class, writeBehind::init);
+    }
+
+    @Test
+    public void testOverlayAppliesPendingUpdates() throws IOException {
+        Path path = directory.resolve("journal.log");
+        UserWriteBehind writeBehind = new UserWriteBehind(null, null, null);
+        User unchanged = user("unchanged@example.com", "Unchanged");
+        User movedOut = user("moved-out@example.com", "Before");
+        User movedIn = user("moved-in@example.com", "Before");
+        try (WriteBehindJournal journal = new WriteBehindJournal(path)) {
+            ReflectionTestUtils.setField(writeBehind, "journal", journal);
+            User movedOutUpdate = user(movedOut.getEmail(), "After");
+            movedOutUpdate.setId(movedOut.getId());
+            movedOutUpdate.setBirthDate(LocalDate.of(2000, 1, 1));
+            User movedInUpdate = user(movedIn.getEmail(), "After");
+            movedInUpdate.setId(movedIn.getId());
+            writeBehind.enqueue(movedOutUpdate);
+            writeBehind.enqueue(movedInUpdate);
+
+            List<User> result = writeBehind.overlay(List.of(unchanged, movedOut),
+                    user -> user.getBirthDate().getYear() == 1990);
+
+            assertEquals(2, result.size());
+            assertSame(unchanged, result.get(0));
+            assertSame(movedInUpdate, result.get(1));
+            assertSame(movedInUpdate, writeBehind.pending(movedIn.getId()).orElseThrow());
+
+            writeBehind.discard(movedIn.getId());
+
+            assertTrue(writeBehind.pending(movedIn.getId()).isEmpty());
+            assertTrue(writeBehind.hasPending());
+        }
+    }
+
+    private static User user(String email, String firstName) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(email);
+        user.setPassword("$2a$10$hash");
+        user.setFirstName(firstName);
+        user.setLastName("Doe");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        user.setRole(Role.MEMBER);
+        return user;
+    }
+}
@@ -0,0 +1,23 @@
+-- The tables of the Flyway migrations as H2 accepts them; V4's varchar_pattern_ops indexes are PostgreSQL only.
+create table if not exists users
+(
+    id           uuid         not null
+        primary key,
+    email        varchar(255) not null,
+    first_name   varchar(255) not null,
+    last_name    varchar(255) not null,
+    birth_date   date         not null,
+    address      varchar(255),
+    phone_number varchar(20),
+    password     varchar(255),
+    role         varchar(255),
+    email_domain varchar(255)
+);
+
+create table if not exists user_email_directory
+(
+    email   varchar(255) not null
+        primary key,
+    user_id uuid         not null,
+    shard   integer      not null
+);